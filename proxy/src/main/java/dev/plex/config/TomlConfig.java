@@ -3,19 +3,28 @@ package dev.plex.config;
 import dev.plex.Plex;
 import dev.plex.toml.Toml;
 import dev.plex.toml.TomlWriter;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 @Getter
 public class TomlConfig
 {
     private final File file;
-    private Toml toml;
+    private volatile Toml toml;
+
+    /**
+     * The typed views of the loaded file, so they are only converted once per load rather than on every call
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, Object> snapshots = new ConcurrentHashMap<>();
 
     @Setter
     private Consumer<Toml> onCreate;
@@ -70,16 +79,25 @@ public class TomlConfig
 
     public void load()
     {
-        this.toml = new Toml().read(this.file);
+        Toml toml = new Toml().read(this.file);
+        this.toml = toml;
+        this.snapshots.replaceAll((clazz, snapshot) -> toml.to(clazz));
         if (onLoad != null)
         {
             this.onLoad.accept(this.toml);
         }
     }
 
+    /**
+     * Gets the loaded file as an object. The same instance is returned until the file is loaded again, so it must not
+     * be modified.
+     *
+     * @param clazz The class to convert the file to
+     * @return the converted file
+     */
     public <T> T as(Class<T> clazz)
     {
-        return this.toml.to(clazz);
+        return clazz.cast(this.snapshots.computeIfAbsent(clazz, key -> this.toml.to(key)));
     }
 
     public <T> void write(T object)
@@ -5,48 +5,39 @@ import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyPingEvent;
 import com.velocitypowered.api.proxy.server.ServerPing;
 import dev.plex.listener.PlexListener;
+import dev.plex.settings.MotdTemplate;
 import dev.plex.settings.ServerSettings;
 import dev.plex.util.RandomUtil;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ServerListener extends PlexListener
 {
+    private static final Pattern COLOR_CODE = Pattern.compile("[&][0-9a-fk-or]{1}");
+
+    /**
+     * The ping response parsed from the settings it was built from, rebuilt whenever the config is loaded again
+     */
+    private volatile PingTemplate template;
+
     @Subscribe(order = PostOrder.FIRST)
     public void onPing(ProxyPingEvent event)
     {
-        String baseMotd = plugin.getConfig().as(ServerSettings.class).getServer().getMotd().get(ThreadLocalRandom.current().nextInt(plugin.getConfig().as(ServerSettings.class).getServer().getMotd().size()));
-        baseMotd = baseMotd.replace("\\n", "\n");
-        baseMotd = baseMotd.replace("%servername%", plugin.getConfig().as(ServerSettings.class).getServer().getName());
-        baseMotd = baseMotd.replace("%mcversion%", plugin.getServer().getVersion().getVersion().split(" ")[0]);
-        baseMotd = baseMotd.replace("%randomgradient%", "<gradient:" + RandomUtil.getRandomColor().toString() + ":" + RandomUtil.getRandomColor().toString() + ">");
-
+        PingTemplate template = template();
+        ServerSettings.Server server = template.settings().getServer();
         ServerPing.Builder builder = event.getPing().asBuilder();
 
-        if (plugin.getConfig().as(ServerSettings.class).getServer().isColorizeMotd())
+        if (!template.motds().isEmpty())
         {
-            AtomicReference<Component> motd = new AtomicReference<>(Component.empty());
-            for (final String word : baseMotd.split(" "))
-            {
-                motd.set(motd.get().append(Component.text(word).color(RandomUtil.getRandomColor())));
-                motd.set(motd.get().append(Component.space()));
-            }
-            builder.description(motd.get());
-        }
-        else
-        {
-            builder.description(MiniMessage.miniMessage().deserialize(baseMotd));
+            builder.description(template.motds().get(RandomUtil.randomNum(template.motds().size())).render());
         }
 
-        builder.samplePlayers(plugin.getConfig().as(ServerSettings.class).getServer().getSample().stream().map(s -> new ServerPing.SamplePlayer(convertColorCodes(s), UUID.randomUUID())).toArray(ServerPing.SamplePlayer[]::new));
-        builder.onlinePlayers(plugin.getServer().getPlayerCount() + plugin.getConfig().as(ServerSettings.class).getServer().getAddPlayerCount());
-        if (plugin.getConfig().as(ServerSettings.class).getServer().isPlusOneMaxPlayer())
+        builder.samplePlayers(template.samplePlayers());
+        builder.onlinePlayers(plugin.getServer().getPlayerCount() + server.getAddPlayerCount());
+        if (server.isPlusOneMaxPlayer())
         {
             builder.maximumPlayers(builder.getOnlinePlayers() + 1);
         }
@@ -55,9 +46,29 @@ public class ServerListener extends PlexListener
 
     }
 
+    private PingTemplate template()
+    {
+        ServerSettings settings = plugin.getConfig().as(ServerSettings.class);
+        PingTemplate current = this.template;
+        if (current == null || current.settings() != settings)
+        {
+            String mcVersion = plugin.getServer().getVersion().getVersion().split(" ")[0];
+            ServerSettings.Server server = settings.getServer();
+            List<MotdTemplate> motds = server.getMotd().stream().map(motd -> MotdTemplate.compile(motd, server.getName(), mcVersion, server.isColorizeMotd())).toList();
+            ServerPing.SamplePlayer[] samplePlayers = server.getSample().stream().map(s -> new ServerPing.SamplePlayer(convertColorCodes(s), UUID.randomUUID())).toArray(ServerPing.SamplePlayer[]::new);
+            current = new PingTemplate(settings, motds, samplePlayers);
+            this.template = current;
+        }
+        return current;
+    }
+
     private String convertColorCodes(String code)
     {
-        Matcher matcher = Pattern.compile("[&][0-9a-fk-or]{1}").matcher(code);
+        Matcher matcher = COLOR_CODE.matcher(code);
         return matcher.replaceAll(matchResult -> "§" + matcher.group().substring(1));
     }
+
+    private record PingTemplate(ServerSettings settings, List<MotdTemplate> motds, ServerPing.SamplePlayer[] samplePlayers)
+    {
+    }
 }
@@ -0,0 +1,85 @@
+package dev.plex.settings;
+
+import dev.plex.util.RandomUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
+import java.util.List;
+
+/**
+ * A MOTD from the config parsed ahead of time, so a ping only has to pick the random colors. The server name and
+ * version are filled in once, and a MOTD using %randomgradient% is rendered once for every pair of gradient colors.
+ */
+public final class MotdTemplate
+{
+    private static final String RANDOM_GRADIENT = "%randomgradient%";
+
+    private final Component[] variants;
+    private final String[] words;
+
+    private MotdTemplate(Component[] variants, String[] words)
+    {
+        this.variants = variants;
+        this.words = words;
+    }
+
+    /**
+     * Parses a MOTD
+     *
+     * @param motd       The MOTD as written in the config
+     * @param serverName The name of the server
+     * @param mcVersion  The Minecraft version of the proxy
+     * @param colorize   Whether every word gets a random color instead of the MOTD being MiniMessage
+     * @return the template
+     */
+    public static MotdTemplate compile(String motd, String serverName, String mcVersion, boolean colorize)
+    {
+        String text = motd.replace("\\n", "\n").replace("%servername%", serverName).replace("%mcversion%", mcVersion);
+        if (colorize)
+        {
+            // Colorized MOTDs are plain text, where a gradient tag would only show up as text
+            return new MotdTemplate(null, text.replace(RANDOM_GRADIENT, "").split(" "));
+        }
+        if (!text.contains(RANDOM_GRADIENT))
+        {
+            return new MotdTemplate(new Component[]{MiniMessage.miniMessage().deserialize(text)}, null);
+        }
+        List<NamedTextColor> colors = RandomUtil.getColors();
+        Component[] variants = new Component[colors.size() * colors.size()];
+        for (int from = 0; from < colors.size(); from++)
+        {
+            for (int to = 0; to < colors.size(); to++)
+            {
+                variants[from * colors.size() + to] = MiniMessage.miniMessage().deserialize(text.replace(RANDOM_GRADIENT, "<gradient:" + colors.get(from) + ":" + colors.get(to) + ">"));
+            }
+        }
+        return new MotdTemplate(variants, null);
+    }
+
+    /**
+     * Renders the MOTD for a ping
+     *
+     * @return the MOTD
+     */
+    public Component render()
+    {
+        if (words != null)
+        {
+            TextComponent.Builder motd = Component.text();
+            for (String word : words)
+            {
+                motd.append(Component.text(word).color(RandomUtil.getRandomColor()));
+                motd.append(Component.space());
+            }
+            return motd.build();
+        }
+        if (variants.length == 1)
+        {
+            return variants[0];
+        }
+        int colors = RandomUtil.getColors().size();
+        return variants[RandomUtil.randomNum(colors) * colors + RandomUtil.randomNum(colors)];
+    }
+}
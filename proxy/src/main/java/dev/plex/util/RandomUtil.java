@@ -2,14 +2,24 @@ package dev.plex.util;
 
 import net.kyori.adventure.text.format.NamedTextColor;
 
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class RandomUtil
 {
+    /**
+     * Every named color except those too dark to read on the server list
+     */
+    private static final List<NamedTextColor> COLORS = NamedTextColor.NAMES.values().stream().filter(namedTextColor -> namedTextColor != NamedTextColor.BLACK && namedTextColor != NamedTextColor.DARK_BLUE).toList();
+
     public static NamedTextColor getRandomColor()
     {
-        NamedTextColor[] colors = NamedTextColor.NAMES.values().stream().filter(namedTextColor -> namedTextColor != NamedTextColor.BLACK && namedTextColor != NamedTextColor.DARK_BLUE).toArray(NamedTextColor[]::new);
-        return colors[randomNum(colors.length)];
+        return COLORS.get(randomNum(COLORS.size()));
+    }
+
+    public static List<NamedTextColor> getColors()
+    {
+        return COLORS;
     }
 
     public static boolean randomBoolean()
@@ -1,8 +1,15 @@
 package dev.plex;
 
 import dev.plex.cache.DataUtils;
+import dev.plex.cache.OfflinePlayerCache;
 import dev.plex.cache.PlayerCache;
+import dev.plex.cache.PreLoginCache;
 import dev.plex.config.Config;
+import dev.plex.config.Policy;
+import dev.plex.config.ToggleState;
+import dev.plex.entity.ChunkWalk;
+import dev.plex.entity.EntityCensus;
+import dev.plex.entity.LoadedChunks;
 import dev.plex.handlers.CommandHandler;
 import dev.plex.handlers.ListenerHandler;
 import dev.plex.hook.CoreProtectHook;
@@ -13,18 +20,24 @@ import dev.plex.punishment.PunishmentManager;
 import dev.plex.services.ServiceManager;
 import dev.plex.storage.RedisConnection;
 import dev.plex.storage.SQLConnection;
+import dev.plex.storage.StorageExecutor;
 import dev.plex.storage.StorageType;
+import dev.plex.storage.player.PlayerWriteQueue;
 import dev.plex.storage.player.SQLPlayerData;
 import dev.plex.storage.punishment.SQLNotes;
 import dev.plex.storage.punishment.SQLPunishment;
+import dev.plex.throttle.ActivityBudget;
+import dev.plex.throttle.RedstoneMonitor;
 import dev.plex.util.BuildInfo;
 import dev.plex.util.BungeeUtil;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
+import dev.plex.util.RateLimiter;
 import dev.plex.util.UpdateChecker;
 import dev.plex.util.redis.MessageUtil;
 import dev.plex.world.CustomWorld;
 import java.io.File;
+import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
 import net.milkbowl.vault.chat.Chat;
@@ -45,13 +58,27 @@ public class Plex extends JavaPlugin
     public Config indefBans;
     public Config commands;
     public Config toggles;
+    private volatile Policy policy;
+    private ToggleState toggleState;
     public File modulesFolder;
     private StorageType storageType = StorageType.SQLITE;
     private SQLConnection sqlConnection;
+    private StorageExecutor storageExecutor;
     private RedisConnection redisConnection;
 
     private PlayerCache playerCache;
+    private PreLoginCache preLoginCache;
+    private OfflinePlayerCache offlinePlayerCache;
+    private RateLimiter rateLimiter;
+    private EntityCensus entityCensus;
+    private LoadedChunks loadedChunks;
+    private RedstoneMonitor redstoneMonitor;
+    private ActivityBudget<ChunkWalk.ChunkPos> fluidBudget;
+    private ActivityBudget<UUID> explosionBudget;
+    private ActivityBudget<ChunkWalk.ChunkPos> physicsBudget;
+    private ActivityBudget<ChunkWalk.ChunkPos> fallingBlockBudget;
     private SQLPlayerData sqlPlayerData;
+    private PlayerWriteQueue playerWriteQueue;
 
     private SQLPunishment sqlPunishment;
     private SQLNotes sqlNotes;
@@ -72,6 +99,15 @@ public class Plex extends JavaPlugin
         return plugin;
     }
 
+    /**
+     * Compiles the rules listeners check from the loaded configuration files and swaps them in. Budgets scaled down by
+     * lag protection stay scaled.
+     */
+    public void reloadPolicy()
+    {
+        policy = Policy.compile(this).withBudgetScale(policy == null ? 1 : policy.getBudgetScale());
+    }
+
     @Override
     public void onLoad()
     {
@@ -107,11 +143,24 @@ public class Plex extends JavaPlugin
         // Don't add default entries to these files
         indefBans.load(false);
         commands.load(false);
+        toggleState = new ToggleState(toggles);
+        reloadPolicy();
 
         sqlConnection = new SQLConnection();
         redisConnection = new RedisConnection();
 
         playerCache = new PlayerCache();
+        offlinePlayerCache = new OfflinePlayerCache();
+        preLoginCache = new PreLoginCache();
+        rateLimiter = new RateLimiter();
+        entityCensus = new EntityCensus();
+        loadedChunks = new LoadedChunks();
+        redstoneMonitor = new RedstoneMonitor();
+        fluidBudget = new ActivityBudget<>(1000L, 10);
+        // A single bucket the length of a tick, so explosions are budgeted per tick rather than smoothed over a window
+        explosionBudget = new ActivityBudget<>(50L, 1);
+        physicsBudget = new ActivityBudget<>(1000L, 10);
+        fallingBlockBudget = new ActivityBudget<>(1000L, 10);
 
         PlexLog.log("Attempting to connect to DB: {0}", plugin.config.getString("data.central.db"));
         try
@@ -178,15 +227,20 @@ public class Plex extends JavaPlugin
             PlexLog.log("Redis is disabled in the configuration file, not connecting.");
         }
 
+        storageExecutor = new StorageExecutor();
         sqlPlayerData = new SQLPlayerData();
+        playerWriteQueue = new PlayerWriteQueue();
         sqlPunishment = new SQLPunishment();
         sqlNotes = new SQLNotes();
 
         new ListenerHandler();
+        // Chunks loaded before the listener was registered, such as on a reload
+        loadedChunks.seed();
         new CommandHandler();
 
         punishmentManager = new PunishmentManager();
         punishmentManager.mergeIndefiniteBans();
+        punishmentManager.loadActivePunishments();
         PlexLog.log("Punishment System initialized");
 
         if (!PlexUtils.isFolia())
@@ -216,20 +270,30 @@ public class Plex extends JavaPlugin
     @Override
     public void onDisable()
     {
+        // Modules may still save through Plex while they disable, so storage has to outlive them
+        moduleManager.disableModules();
+
+        // Storage tasks still running can queue player updates, so they finish before the queue is drained
+        storageExecutor.shutdown();
         Bukkit.getOnlinePlayers().forEach(player ->
         {
             PlexPlayer plexPlayer = playerCache.getPlexPlayerMap().get(player.getUniqueId()); //get the player because it's literally impossible for them to not have an object
-            sqlPlayerData.update(plexPlayer);
+            playerWriteQueue.enqueue(plexPlayer);
         });
+        // Drain every queued update in one batch before the connection pool goes away
+        playerWriteQueue.shutdown();
+
         if (redisConnection != null && redisConnection.isEnabled() && redisConnection.getJedis().isConnected())
         {
             PlexLog.log("Disabling Redis/Jedis. No memory leaks in this Anarchy server!");
             redisConnection.getJedis().close();
         }
+        if (sqlConnection != null)
+        {
+            sqlConnection.close();
+        }
 
         this.getServer().getMessenger().unregisterOutgoingPluginChannel(this);
-
-        moduleManager.disableModules();
     }
 
     private void generateWorlds()
@@ -247,7 +311,7 @@ public class Plex extends JavaPlugin
         Bukkit.getOnlinePlayers().forEach(player ->
         {
             PlexPlayer plexPlayer = DataUtils.getPlayer(player.getUniqueId());
-            playerCache.getPlexPlayerMap().put(player.getUniqueId(), plexPlayer); //put them into the cache
+            playerCache.put(plexPlayer); //put them into the cache
         });
     }
 
@@ -4,7 +4,8 @@ import dev.plex.Plex;
 import dev.plex.player.PlexPlayer;
 import dev.plex.storage.StorageType;
 
-import java.util.Optional;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,7 +21,26 @@ public class DataUtils
      */
     public static boolean hasPlayedBefore(UUID uuid)
     {
-        return Plex.get().getSqlPlayerData().exists(uuid);
+        PreLoginCache.Entry staged = Plex.get().getPreLoginCache().peek(uuid);
+        if (staged != null)
+        {
+            return !staged.newPlayer();
+        }
+        if (Plex.get().getPlayerCache().contains(uuid) || Plex.get().getPlayerWriteQueue().getPending(uuid) != null)
+        {
+            return true;
+        }
+        OfflinePlayerCache.Entry cached = Plex.get().getOfflinePlayerCache().get(uuid, false);
+        if (cached != null)
+        {
+            return cached.exists();
+        }
+        boolean exists = Plex.get().getSqlPlayerData().exists(uuid);
+        if (!exists)
+        {
+            Plex.get().getOfflinePlayerCache().put(uuid, null, false);
+        }
+        return exists;
     }
 
     public static boolean hasPlayedBefore(String username)
@@ -42,12 +62,41 @@ public class DataUtils
 
     public static PlexPlayer getPlayer(UUID uuid, boolean loadExtraData)
     {
-        if (Plex.get().getPlayerCache().getPlexPlayerMap().containsKey(uuid))
+        PlexPlayer cached = Plex.get().getPlayerCache().getPlexPlayer(uuid);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        PreLoginCache.Entry staged = Plex.get().getPreLoginCache().peek(uuid);
+        if (staged != null)
         {
-            return Plex.get().getPlayerCache().getPlexPlayerMap().get(uuid);
+            return staged.plexPlayer();
         }
 
-        return Plex.get().getSqlPlayerData().getByUUID(uuid, loadExtraData);
+        PlexPlayer pending = Plex.get().getPlayerWriteQueue().getPending(uuid);
+        if (pending != null)
+        {
+            return pending;
+        }
+
+        OfflinePlayerCache.Entry offline = Plex.get().getOfflinePlayerCache().get(uuid, loadExtraData);
+        if (offline != null)
+        {
+            return offline.exists() ? offline.plexPlayer() : new PlexPlayer(uuid, loadExtraData);
+        }
+
+        try
+        {
+            PlexPlayer plexPlayer = Plex.get().getSqlPlayerData().find(uuid, loadExtraData);
+            Plex.get().getOfflinePlayerCache().put(uuid, plexPlayer, loadExtraData);
+            return plexPlayer != null ? plexPlayer : new PlexPlayer(uuid, loadExtraData);
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+        return null;
     }
 
     public static PlexPlayer getPlayer(String username)
@@ -57,10 +106,10 @@ public class DataUtils
 
     public static PlexPlayer getPlayer(String username, boolean loadExtraData)
     {
-        Optional<PlexPlayer> plexPlayer = Plex.get().getPlayerCache().getPlexPlayerMap().values().stream().filter(player -> player.getName().equalsIgnoreCase(username)).findFirst();
-        if (plexPlayer.isPresent())
+        PlexPlayer cached = Plex.get().getPlayerCache().getByName(username);
+        if (cached != null)
         {
-            return plexPlayer.get();
+            return cached;
         }
 
         return Plex.get().getSqlPlayerData().getByName(username, loadExtraData);
@@ -75,7 +124,7 @@ public class DataUtils
      */
     public static PlexPlayer getPlayerByIP(String ip)
     {
-        PlexPlayer player = Plex.get().getPlayerCache().getPlexPlayerMap().values().stream().filter(plexPlayer -> plexPlayer.getIps().contains(ip)).findFirst().orElse(null);
+        PlexPlayer player = Plex.get().getPlayerCache().getByIP(ip);
         if (player != null)
         {
             return player;
@@ -85,25 +134,70 @@ public class DataUtils
     }
 
     /**
-     * Updates a player's information in the database
+     * Gets every player who has joined from an IP address, where a single IP can belong to many players
+     *
+     * @param ip The IP address
+     * @return a list of PlexPlayer objects, most recently seen first, with online players taken from cache
+     * @see PlexPlayer
+     */
+    public static List<PlexPlayer> getPlayersByIP(String ip)
+    {
+        return getPlayersByIP(ip, true);
+    }
+
+    /**
+     * Gets every player who has joined from an IP address
+     *
+     * @param ip            The IP address
+     * @param loadExtraData Whether to load the punishments of players that aren't cached
+     * @return a list of PlexPlayer objects, most recently seen first, with online players taken from cache
+     * @see PlexPlayer
+     */
+    public static List<PlexPlayer> getPlayersByIP(String ip, boolean loadExtraData)
+    {
+        return Plex.get().getSqlPlayerData().getPlayersByIP(ip, loadExtraData).stream().map(player ->
+        {
+            PlexPlayer cached = Plex.get().getPlayerCache().getPlexPlayer(player.getUuid());
+            return cached != null ? cached : player;
+        }).toList();
+    }
+
+    /**
+     * Gets the unique IDs of every other player who has shared an IP address with a player
+     *
+     * @param uuid The unique ID of the player
+     * @return a list of unique IDs
+     */
+    public static List<UUID> getAlts(UUID uuid)
+    {
+        return Plex.get().getSqlPlayerData().getAlts(uuid);
+    }
+
+    /**
+     * Queues a player's information to be written to the database on the next batch flush
      *
      * @param plexPlayer The PlexPlayer to update
      * @see PlexPlayer
+     * @see dev.plex.storage.player.PlayerWriteQueue
      */
     public static void update(PlexPlayer plexPlayer)
     {
-        Plex.get().getSqlPlayerData().update(plexPlayer);
+        Plex.get().getOfflinePlayerCache().invalidate(plexPlayer.getUuid());
+        // The name or IPs may be what changed, which the cache looks players up by
+        Plex.get().getPlayerCache().reindex(plexPlayer);
+        Plex.get().getPlayerWriteQueue().enqueue(plexPlayer);
     }
 
     /**
-     * Inserts a player's information in the database
+     * Queues a player's information to be inserted in the database on the next batch flush
      *
      * @param plexPlayer The PlexPlayer to insert
      * @see PlexPlayer
      */
     public static void insert(PlexPlayer plexPlayer)
     {
-        Plex.get().getSqlPlayerData().insert(plexPlayer);
+        Plex.get().getOfflinePlayerCache().invalidate(plexPlayer.getUuid());
+        Plex.get().getPlayerWriteQueue().enqueue(plexPlayer);
     }
 
 }
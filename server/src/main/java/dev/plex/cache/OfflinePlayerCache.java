@@ -0,0 +1,146 @@
+package dev.plex.cache;
+
+import dev.plex.Plex;
+import dev.plex.player.PlexPlayer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second cache tier for players who are offline. Entries are evicted least recently used first once the cache is
+ * full, and expire after a while so changes made by other servers are eventually picked up. Players that don't exist
+ * are cached too, for a shorter time.
+ */
+public class OfflinePlayerCache
+{
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<UUID, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OfflinePlayerCache()
+    {
+        this.maxSize = Math.max(0, Plex.get().config.getInt("data.central.offline_cache.size", 500));
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Plex.get().config.getLong("data.central.offline_cache.ttl", 300));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Plex.get().config.getLong("data.central.offline_cache.negative_ttl", 30));
+        this.entries = new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest)
+            {
+                if (size() > maxSize)
+                {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a player
+     *
+     * @param uuid          The unique ID of the player
+     * @param loadExtraData Whether the caller needs the player's punishments loaded
+     * @return the cached entry, or null if the player has to be loaded from the database
+     */
+    public synchronized Entry get(UUID uuid, boolean loadExtraData)
+    {
+        Entry entry = entries.get(uuid);
+        if (entry == null || entry.isExpired(System.nanoTime()) || (loadExtraData && entry.exists() && !entry.extraData()))
+        {
+            if (entry != null)
+            {
+                entries.remove(uuid);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        (entry.exists() ? hits : negativeHits).incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Caches a player loaded from the database
+     *
+     * @param uuid          The unique ID of the player
+     * @param plexPlayer    The loaded player, or null if the player doesn't exist
+     * @param loadExtraData Whether the player's punishments were loaded
+     */
+    public synchronized void put(UUID uuid, PlexPlayer plexPlayer, boolean loadExtraData)
+    {
+        if (maxSize == 0)
+        {
+            return;
+        }
+        long ttl = plexPlayer == null ? negativeTtlNanos : ttlNanos;
+        entries.put(uuid, new Entry(plexPlayer, loadExtraData, System.nanoTime() + ttl));
+    }
+
+    public synchronized void invalidate(UUID uuid)
+    {
+        entries.remove(uuid);
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getNegativeHits()
+    {
+        return negativeHits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public double getHitRate()
+    {
+        long hits = this.hits.get() + this.negativeHits.get();
+        long total = hits + this.misses.get();
+        return total == 0 ? 0 : hits * 100D / total;
+    }
+
+    /**
+     * A cached lookup. A null player means the player doesn't exist in the database.
+     */
+    public record Entry(PlexPlayer plexPlayer, boolean extraData, long expiresAt)
+    {
+        public boolean exists()
+        {
+            return plexPlayer != null;
+        }
+
+        private boolean isExpired(long now)
+        {
+            return now - expiresAt > 0;
+        }
+    }
+}
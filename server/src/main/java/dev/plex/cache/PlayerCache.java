@@ -1,47 +1,263 @@
 package dev.plex.cache;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.ForwardingMap;
+import dev.plex.Plex;
 import dev.plex.player.PlexPlayer;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Cache storage
+ * Cache storage for online players. Players are indexed by unique ID, by lowercase name and by every IP they have
+ * joined from, so lookups by any of them don't have to scan the cache. Safe to use from any thread.
  */
-
 public class PlayerCache
 {
     /**
      * A key/value pair where the key is the unique ID of the Plex Player
      */
-    private static final Map<UUID, PlexPlayer> plexPlayerMap = Maps.newHashMap();
+    private final Map<UUID, PlexPlayer> plexPlayerMap = new ConcurrentHashMap<>();
+
+    /**
+     * Lowercase names and IP addresses pointing to the unique IDs using them
+     */
+    private final Map<String, UUID> nameIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> ipIndex = new ConcurrentHashMap<>();
+
+    /**
+     * The name and IPs each player was last indexed under, so stale keys can be removed after a change
+     */
+    private final Map<UUID, Indexed> indexed = new ConcurrentHashMap<>();
 
     /**
-     * A key/value pair where the key is the unique ID of the Punished Player
+     * A view of the cached players whose changes go through {@link #put(PlexPlayer)} and {@link #remove(UUID)}
      */
-    //    private static final Map<UUID, PunishedPlayer> punishedPlayerMap = Maps.newHashMap();
+    private final Map<UUID, PlexPlayer> mapView = new MapView();
 
-    //    public static Map<UUID, PunishedPlayer> getPunishedPlayerMap()
-    //    {
-    //        return punishedPlayerMap;
-    //    }
+    /**
+     * Gets every cached player by unique ID. Putting and removing players through the map keeps the indexes in sync,
+     * but its key, value and entry sets are read-only.
+     *
+     * @return the cached players by unique ID
+     */
     public Map<UUID, PlexPlayer> getPlexPlayerMap()
     {
-        return plexPlayerMap;
+        return mapView;
+    }
+
+    public PlexPlayer getPlexPlayer(UUID uuid)
+    {
+        return plexPlayerMap.get(uuid);
     }
 
-    /*public static PunishedPlayer getPunishedPlayer(UUID uuid)
+    public boolean contains(UUID uuid)
     {
-        if (!getPunishedPlayerMap().containsKey(uuid))
+        return plexPlayerMap.containsKey(uuid);
+    }
+
+    public Collection<PlexPlayer> getPlayers()
+    {
+        return Collections.unmodifiableCollection(plexPlayerMap.values());
+    }
+
+    public int size()
+    {
+        return plexPlayerMap.size();
+    }
+
+    /**
+     * Caches a player, or re-indexes it if it is already cached and its name or IPs changed
+     *
+     * @param plexPlayer The PlexPlayer object
+     */
+    public void put(PlexPlayer plexPlayer)
+    {
+        synchronized (indexed)
         {
-            getPunishedPlayerMap().put(uuid, new PunishedPlayer(uuid));
+            plexPlayerMap.put(plexPlayer.getUuid(), plexPlayer);
+            // Online players are authoritative, so an offline copy would only go stale
+            Plex.get().getOfflinePlayerCache().invalidate(plexPlayer.getUuid());
+            unindex(plexPlayer.getUuid());
+            index(plexPlayer);
         }
-        return getPunishedPlayerMap().get(uuid);
     }
-*/
-    public PlexPlayer getPlexPlayer(UUID uuid)
+
+    /**
+     * Updates the name and IP indexes of a cached player after its name or IPs changed. Does nothing if the player is
+     * not the one cached for its unique ID.
+     *
+     * @param plexPlayer The PlexPlayer object
+     */
+    public void reindex(PlexPlayer plexPlayer)
     {
-        return getPlexPlayerMap().get(uuid);
+        synchronized (indexed)
+        {
+            if (plexPlayerMap.get(plexPlayer.getUuid()) == plexPlayer)
+            {
+                unindex(plexPlayer.getUuid());
+                index(plexPlayer);
+            }
+        }
+    }
+
+    public PlexPlayer remove(UUID uuid)
+    {
+        synchronized (indexed)
+        {
+            unindex(uuid);
+            return plexPlayerMap.remove(uuid);
+        }
+    }
+
+    /**
+     * Gets a cached player by name, ignoring case
+     *
+     * @param name The name of the player
+     * @return the PlexPlayer object, or null if no cached player uses the name
+     */
+    public PlexPlayer getByName(String name)
+    {
+        UUID uuid = nameIndex.get(name.toLowerCase(Locale.ROOT));
+        return uuid == null ? null : plexPlayerMap.get(uuid);
+    }
+
+    /**
+     * Gets a cached player who has joined from an IP address
+     *
+     * @param ip The IP address
+     * @return the PlexPlayer object, or null if no cached player has used the IP
+     */
+    public PlexPlayer getByIP(String ip)
+    {
+        Set<UUID> uuids = ipIndex.get(ip);
+        if (uuids == null)
+        {
+            return null;
+        }
+        for (UUID uuid : uuids)
+        {
+            PlexPlayer plexPlayer = plexPlayerMap.get(uuid);
+            if (plexPlayer != null)
+            {
+                return plexPlayer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the unique IDs of every cached player who has joined from an IP address
+     *
+     * @param ip The IP address
+     * @return a read-only set of unique IDs
+     */
+    public Set<UUID> getUUIDsByIP(String ip)
+    {
+        Set<UUID> uuids = ipIndex.get(ip);
+        return uuids == null ? Collections.emptySet() : Collections.unmodifiableSet(uuids);
+    }
+
+    private void index(PlexPlayer plexPlayer)
+    {
+        UUID uuid = plexPlayer.getUuid();
+        String name = plexPlayer.getName() == null ? null : plexPlayer.getName().toLowerCase(Locale.ROOT);
+        List<String> ips = plexPlayer.getIps() == null ? List.of() : List.copyOf(plexPlayer.getIps());
+        if (name != null)
+        {
+            nameIndex.put(name, uuid);
+        }
+        for (String ip : ips)
+        {
+            ipIndex.computeIfAbsent(ip, key -> ConcurrentHashMap.newKeySet()).add(uuid);
+        }
+        indexed.put(uuid, new Indexed(name, ips));
+    }
+
+    private void unindex(UUID uuid)
+    {
+        Indexed previous = indexed.remove(uuid);
+        if (previous == null)
+        {
+            return;
+        }
+        if (previous.name() != null)
+        {
+            nameIndex.remove(previous.name(), uuid);
+        }
+        for (String ip : previous.ips())
+        {
+            ipIndex.computeIfPresent(ip, (key, uuids) ->
+            {
+                uuids.remove(uuid);
+                return uuids.isEmpty() ? null : uuids;
+            });
+        }
+    }
+
+    private record Indexed(String name, List<String> ips)
+    {
+    }
+
+    private final class MapView extends ForwardingMap<UUID, PlexPlayer>
+    {
+        @Override
+        protected Map<UUID, PlexPlayer> delegate()
+        {
+            return plexPlayerMap;
+        }
+
+        @Override
+        public PlexPlayer put(UUID uuid, PlexPlayer plexPlayer)
+        {
+            if (!uuid.equals(plexPlayer.getUuid()))
+            {
+                throw new IllegalArgumentException("Player " + plexPlayer.getUuid() + " can't be cached under " + uuid);
+            }
+            PlexPlayer previous = plexPlayerMap.get(uuid);
+            PlayerCache.this.put(plexPlayer);
+            return previous;
+        }
+
+        @Override
+        public void putAll(Map<? extends UUID, ? extends PlexPlayer> map)
+        {
+            standardPutAll(map);
+        }
+
+        @Override
+        public PlexPlayer remove(Object key)
+        {
+            return key instanceof UUID uuid ? PlayerCache.this.remove(uuid) : null;
+        }
+
+        @Override
+        public void clear()
+        {
+            plexPlayerMap.keySet().forEach(PlayerCache.this::remove);
+        }
+
+        @Override
+        public Set<UUID> keySet()
+        {
+            return Collections.unmodifiableSet(plexPlayerMap.keySet());
+        }
+
+        @Override
+        public Collection<PlexPlayer> values()
+        {
+            return Collections.unmodifiableCollection(plexPlayerMap.values());
+        }
+
+        @Override
+        public Set<Entry<UUID, PlexPlayer>> entrySet()
+        {
+            return Collections.unmodifiableMap(plexPlayerMap).entrySet();
+        }
     }
 }
@@ -0,0 +1,90 @@
+package dev.plex.cache;
+
+import dev.plex.player.PlexPlayer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staging area for player data loaded asynchronously during pre-login, so the join handler doesn't have to touch the
+ * database on the main thread
+ */
+public class PreLoginCache
+{
+    /**
+     * How long a staged player is kept if the login is denied or never finishes
+     */
+    private static final long EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Map<UUID, Entry> staged = new ConcurrentHashMap<>();
+
+    /**
+     * Stages a player loaded during pre-login
+     *
+     * @param plexPlayer The loaded PlexPlayer
+     * @param newPlayer  Whether the player has no database entry yet
+     */
+    public void stage(PlexPlayer plexPlayer, boolean newPlayer)
+    {
+        long now = System.nanoTime();
+        staged.values().removeIf(entry -> entry.isExpired(now));
+        staged.put(plexPlayer.getUuid(), new Entry(plexPlayer, newPlayer, now + EXPIRY_NANOS));
+    }
+
+    /**
+     * Gets a staged player without removing it
+     *
+     * @param uuid The unique ID of the player
+     * @return the staged entry, or null if none is staged or it expired
+     */
+    public Entry peek(UUID uuid)
+    {
+        Entry entry = staged.get(uuid);
+        if (entry == null)
+        {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime()))
+        {
+            staged.remove(uuid, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Removes and returns a staged player
+     *
+     * @param uuid The unique ID of the player
+     * @return the staged entry, or null if none is staged or it expired
+     */
+    public Entry take(UUID uuid)
+    {
+        Entry entry = staged.remove(uuid);
+        if (entry == null || entry.isExpired(System.nanoTime()))
+        {
+            return null;
+        }
+        return entry;
+    }
+
+    public void invalidate(UUID uuid)
+    {
+        staged.remove(uuid);
+    }
+
+    public int size()
+    {
+        return staged.size();
+    }
+
+    public record Entry(PlexPlayer plexPlayer, boolean newPlayer, long expiresAt)
+    {
+        private boolean isExpired(long now)
+        {
+            return now - expiresAt > 0;
+        }
+    }
+}
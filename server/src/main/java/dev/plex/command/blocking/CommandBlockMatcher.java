@@ -0,0 +1,179 @@
+package dev.plex.command.blocking;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.plex.util.PlexLog;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Blocked commands compiled once when they are loaded. Matching entries are stored in a trie of lowercase tokens with
+ * one branch per alias, and regex entries are joined into a single pattern with a named group per entry, so a command
+ * is checked against every entry in one pass.
+ */
+public class CommandBlockMatcher
+{
+    /**
+     * Back references and named groups would break once patterns are joined, so those are matched on their own
+     */
+    private static final Pattern UNJOINABLE = Pattern.compile("\\\\\\d|\\\\k<|\\(\\?<[a-zA-Z]");
+
+    private final Node root = new Node();
+    private final Map<String, Node> namespaces = Maps.newHashMap();
+    private final List<BlockedCommand> joinedEntries = Lists.newArrayList();
+    private final Map<Pattern, BlockedCommand> separatePatterns = Maps.newLinkedHashMap();
+    private final Pattern joinedPattern;
+
+    public CommandBlockMatcher(List<BlockedCommand> blockedCommands)
+    {
+        StringBuilder joined = new StringBuilder();
+        for (BlockedCommand blockedCommand : blockedCommands)
+        {
+            if (blockedCommand.getCommand() != null)
+            {
+                addCommand(blockedCommand);
+            }
+            else if (blockedCommand.getRegex() != null)
+            {
+                addRegex(blockedCommand, joined);
+            }
+        }
+        this.joinedPattern = joined.isEmpty() ? null : Pattern.compile(joined.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Finds the entry blocking a command. Matching entries win over regex entries, and the most specific matching
+     * entry wins over shorter ones.
+     *
+     * @param command The command without its leading slash
+     * @return the blocked command entry, or null if the command is allowed
+     */
+    public BlockedCommand match(String command)
+    {
+        String[] tokens = StringUtils.normalizeSpace(command).toLowerCase(Locale.ROOT).split(" ");
+        BlockedCommand found = walk(root.children.get(tokens[0]), tokens);
+        if (found == null && !namespaces.isEmpty())
+        {
+            int colon = tokens[0].indexOf(':');
+            if (colon > 0)
+            {
+                found = walk(namespaces.get(tokens[0].substring(0, colon + 1)), tokens);
+            }
+        }
+        if (found != null)
+        {
+            return found;
+        }
+
+        if (joinedPattern != null)
+        {
+            Matcher matcher = joinedPattern.matcher(command);
+            if (matcher.find())
+            {
+                for (int i = 0; i < joinedEntries.size(); i++)
+                {
+                    if (matcher.start("r" + i) != -1)
+                    {
+                        return joinedEntries.get(i);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Pattern, BlockedCommand> entry : separatePatterns.entrySet())
+        {
+            if (entry.getKey().matcher(command).find())
+            {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private BlockedCommand walk(Node node, String[] tokens)
+    {
+        BlockedCommand found = null;
+        for (int i = 1; node != null; i++)
+        {
+            if (node.blockedCommand != null)
+            {
+                found = node.blockedCommand;
+            }
+            node = i < tokens.length ? node.children.get(tokens[i]) : null;
+        }
+        return found;
+    }
+
+    private void addCommand(BlockedCommand blockedCommand)
+    {
+        String[] tokens = StringUtils.normalizeSpace(blockedCommand.getCommand()).toLowerCase(Locale.ROOT).split(" ");
+        List<String> names = Lists.newArrayList(tokens[0]);
+        blockedCommand.getCommandAliases().forEach(alias -> names.add(alias.toLowerCase(Locale.ROOT)));
+        for (String name : names)
+        {
+            // "plugin:" blocks every command of that plugin
+            Node node = name.endsWith(":") && tokens.length == 1
+                    ? namespaces.computeIfAbsent(name, key -> new Node())
+                    : root.children.computeIfAbsent(name, key -> new Node());
+            for (int i = 1; i < tokens.length; i++)
+            {
+                node = node.children.computeIfAbsent(tokens[i], key -> new Node());
+            }
+            if (node.blockedCommand == null)
+            {
+                node.blockedCommand = blockedCommand;
+            }
+        }
+    }
+
+    private void addRegex(BlockedCommand blockedCommand, StringBuilder joined)
+    {
+        Pattern pattern;
+        try
+        {
+            pattern = Pattern.compile(blockedCommand.getRegex(), Pattern.CASE_INSENSITIVE);
+        }
+        catch (PatternSyntaxException e)
+        {
+            PlexLog.error("Blocked command regex '{0}' is invalid: {1}", blockedCommand.getRegex(), e.getDescription());
+            return;
+        }
+        if (UNJOINABLE.matcher(blockedCommand.getRegex()).find())
+        {
+            separatePatterns.put(pattern, blockedCommand);
+            return;
+        }
+        if (!joined.isEmpty())
+        {
+            joined.append('|');
+        }
+        joined.append("(?<r").append(joinedEntries.size()).append('>').append(blockedCommand.getRegex()).append(')');
+        joinedEntries.add(blockedCommand);
+    }
+
+    public int size()
+    {
+        return joinedEntries.size() + separatePatterns.size() + countCommands(root) + namespaces.values().stream().mapToInt(this::countCommands).sum();
+    }
+
+    private int countCommands(Node node)
+    {
+        int count = node.blockedCommand != null ? 1 : 0;
+        for (Node child : node.children.values())
+        {
+            count += countCommands(child);
+        }
+        return count;
+    }
+
+    private static final class Node
+    {
+        private final Map<String, Node> children = Maps.newHashMap();
+        private BlockedCommand blockedCommand;
+    }
+}
@@ -1,10 +1,15 @@
 package dev.plex.command.impl;
 
 import com.google.common.collect.ImmutableList;
+import dev.plex.cache.OfflinePlayerCache;
 import dev.plex.command.PlexCommand;
 import dev.plex.command.annotation.CommandParameters;
 import dev.plex.command.annotation.CommandPermissions;
+import dev.plex.entity.EntityCensus;
 import dev.plex.menu.impl.MaterialMenu;
+import dev.plex.punishment.ActiveBanIndex;
+import dev.plex.storage.StorageExecutor;
+import dev.plex.storage.player.PlayerWriteQueue;
 import dev.plex.util.GameRuleUtil;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
@@ -21,8 +26,9 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
-@CommandParameters(name = "pdebug", description = "Plex's debug command", usage = "/<command> <aliases <command> | redis-reset <player> | gamerules>")
+@CommandParameters(name = "pdebug", description = "Plex's debug command", usage = "/<command> <aliases <command> | redis-reset <player> | gamerules | storage | executor | cache | bans | entities>")
 @CommandPermissions(permission = "plex.debug")
 public class DebugCMD extends PlexCommand
 {
@@ -64,6 +70,42 @@ public class DebugCMD extends PlexCommand
             }
             return messageComponent("reappliedGamerules");
         }
+        if (args[0].equalsIgnoreCase("storage"))
+        {
+            PlayerWriteQueue queue = plugin.getPlayerWriteQueue();
+            return messageComponent("playerWriteQueueStats", queue.getQueueDepth(), queue.getFlushCount(), queue.getFlushedRows(), queue.getMergedUpdates(),
+                    String.format("%.2f", queue.getLastFlushMillis()), String.format("%.2f", queue.getAverageFlushMillis()), String.format("%.2f", queue.getMaxFlushMillis()));
+        }
+        if (args[0].equalsIgnoreCase("executor"))
+        {
+            StorageExecutor executor = plugin.getStorageExecutor();
+            executor.getQueryStats().entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry ->
+            {
+                StorageExecutor.QueryStats stats = entry.getValue();
+                send(sender, messageComponent("storageQueryStats", entry.getKey(), stats.getCount(), String.format("%.2f", stats.getAverageMillis()),
+                        percentile(stats, 0.5), percentile(stats, 0.95), percentile(stats, 0.99), String.format("%.2f", stats.getMaxMillis())));
+            });
+            return messageComponent("storageExecutorStats", executor.getPoolSize(), executor.getActiveCount(), executor.getQueuedCount(), executor.getCompletedCount(),
+                    executor.getRejectedCount(), executor.getCallerRunsCount());
+        }
+        if (args[0].equalsIgnoreCase("cache"))
+        {
+            OfflinePlayerCache offline = plugin.getOfflinePlayerCache();
+            return messageComponent("playerCacheStats", plugin.getPlayerCache().size(), offline.size(), offline.getHits(), offline.getNegativeHits(), offline.getMisses(),
+                    offline.getEvictions(), String.format("%.1f", offline.getHitRate()));
+        }
+        if (args[0].equalsIgnoreCase("bans"))
+        {
+            ActiveBanIndex index = plugin.getPunishmentManager().getActiveBanIndex();
+            return messageComponent("activeBanIndexStats", index.size(), index.ipCount(), String.format("%.1f", index.estimateMemoryBytes() / 1024D),
+                    plugin.getPunishmentManager().getExpiryScheduler().size());
+        }
+        if (args[0].equalsIgnoreCase("entities"))
+        {
+            EntityCensus census = plugin.getEntityCensus();
+            census.topChunks(null, null, 10).forEach(chunk -> send(sender, messageComponent("entityCensusChunk", chunk.world().getName(), chunk.x(), chunk.z(), chunk.count())));
+            return messageComponent("entityCensusStats", census.getTrackedCount(), census.getChunkCount(), census.isSynced());
+        }
         if (args[0].equalsIgnoreCase("aliases"))
         {
             if (args.length == 2)
@@ -89,6 +131,12 @@ public class DebugCMD extends PlexCommand
         return usage();
     }
 
+    private String percentile(StorageExecutor.QueryStats stats, double percentile)
+    {
+        long millis = stats.getPercentileMillis(percentile);
+        return millis < 0 ? ">5000ms" : "<" + millis + "ms";
+    }
+
     @Override
     public @NotNull List<String> smartTabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) throws IllegalArgumentException
     {
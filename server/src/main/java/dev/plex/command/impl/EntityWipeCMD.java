@@ -4,19 +4,18 @@ import dev.plex.command.PlexCommand;
 import dev.plex.command.annotation.CommandParameters;
 import dev.plex.command.annotation.CommandPermissions;
 import dev.plex.command.source.RequiredCommandSource;
+import dev.plex.entity.EntityWipe;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
 import net.kyori.adventure.text.Component;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @CommandPermissions(permission = "plex.entitywipe", source = RequiredCommandSource.ANY)
 @CommandParameters(name = "entitywipe", description = "Remove various server entities that may cause lag, such as dropped items, minecarts, and boats.", usage = "/<command> [entity] [radius]", aliases = "ew,rd")
@@ -39,70 +38,60 @@ public class EntityWipeCMD extends PlexCommand
         if (radiusSpecified)
         {
             radius = parseInt(sender, args[entityWhitelist.size() - 1]); // get the args length as the size of the list
-            radius *= radius;
             entityWhitelist.remove(entityWhitelist.size() - 1); // remove the radius from the list
         }
 
         PlexLog.debug("radius: " + radius);
 
-        EntityType[] entityTypes = EntityType.values();
-        entityWhitelist.removeIf(name ->
+        Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+        if (useBlacklist)
         {
-            boolean res = Arrays.stream(entityTypes).noneMatch(entityType -> name.equalsIgnoreCase(entityType.name()));
-            if (res)
+            for (EntityType entityType : EntityType.values())
             {
-                sender.sendMessage(messageComponent("invalidEntityType", name));
+                if (entityType != EntityType.UNKNOWN && entityBlacklist.stream().noneMatch(entityName -> entityName.equalsIgnoreCase(entityType.name())))
+                {
+                    types.add(entityType);
+                }
             }
-            return res;
-        });
-
-        HashMap<String, Integer> entityCounts = new HashMap<>();
-
-        for (World world : Bukkit.getWorlds())
+        }
+        else
         {
-            for (Entity entity : world.getEntities())
+            for (String name : entityWhitelist)
             {
-                if (entity.getType() != EntityType.PLAYER)
+                try
                 {
-                    String type = entity.getType().name();
-
-                    if (useBlacklist ? entityBlacklist.stream().noneMatch(entityName -> entityName.equalsIgnoreCase(type)) : entityWhitelist.stream().anyMatch(entityName -> entityName.equalsIgnoreCase(type)))
-                    {
-                        if (radius > 0)
-                        {
-                            PlexLog.debug("we got here, radius is > 0");
-                            if (playerSender != null && entity.getWorld() == playerSender.getWorld() && playerSender.getLocation().distanceSquared(entity.getLocation()) > radius)
-                            {
-                                PlexLog.debug("continuing");
-                                continue;
-                            }
-                        }
-                        PlexLog.debug("removed entity: " + entity.getType().name());
-                        entity.remove();
-
-                        entityCounts.put(type, entityCounts.getOrDefault(type, 0) + 1);
-                    }
+                    types.add(EntityType.valueOf(name.toUpperCase(Locale.ROOT)));
+                }
+                catch (IllegalArgumentException e)
+                {
+                    sender.sendMessage(messageComponent("invalidEntityType", name));
                 }
             }
         }
 
-        int entityCount = entityCounts.values().stream().mapToInt(a -> a).sum();
-
-        if (useBlacklist)
+        EntityWipe.Filter filter = EntityWipe.Filter.of(types);
+        if (radius > 0 && playerSender != null)
         {
-            PlexUtils.broadcast(messageComponent("removedEntities", sender.getName(), entityCount));
+            filter = filter.within(playerSender.getLocation(), radius);
         }
-        else
+
+        EntityWipe.start(filter).thenAccept(result ->
         {
-            if (entityCount == 0)
+            PlexLog.debug("Entity wipe removed {0} entities from {1} chunks over {2} ticks", result.total(), result.chunks(), result.ticks());
+            if (useBlacklist)
+            {
+                PlexUtils.broadcast(messageComponent("removedEntities", sender.getName(), result.total()));
+                return;
+            }
+            if (result.total() == 0)
             {
                 sender.sendMessage(messageComponent("noRemovedEntities"));
-                return null;
+                return;
             }
-            String list = String.join(", ", entityCounts.keySet());
+            String list = result.counts().keySet().stream().map(EntityType::name).collect(Collectors.joining(", "));
             list = list.replaceAll("(, )(?!.*\1)", (list.indexOf(", ") == list.lastIndexOf(", ") ? "" : ",") + " and ");
-            PlexUtils.broadcast(messageComponent("removedEntitiesOfTypes", sender.getName(), entityCount, list));
-        }
+            PlexUtils.broadcast(messageComponent("removedEntitiesOfTypes", sender.getName(), result.total(), list));
+        });
         return null;
     }
 
@@ -111,14 +100,11 @@ public class EntityWipeCMD extends PlexCommand
         if (silentCheckPermission(sender, this.getPermission()))
         {
             List<String> entities = new ArrayList<>();
-            for (World world : Bukkit.getWorlds())
+            for (EntityType entityType : plugin.getEntityCensus().getPresentTypes())
             {
-                for (Entity entity : world.getEntities())
+                if (entityType != EntityType.PLAYER)
                 {
-                    if (entity.getType() != EntityType.PLAYER)
-                    {
-                        entities.add(entity.getType().name());
-                    }
+                    entities.add(entityType.name());
                 }
             }
             return entities.stream().toList();
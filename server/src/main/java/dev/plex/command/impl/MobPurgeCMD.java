@@ -4,16 +4,13 @@ import dev.plex.command.PlexCommand;
 import dev.plex.command.annotation.CommandParameters;
 import dev.plex.command.annotation.CommandPermissions;
 import dev.plex.command.source.RequiredCommandSource;
+import dev.plex.entity.EntityWipe;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
 import net.kyori.adventure.text.Component;
 import org.apache.commons.lang3.text.WordUtils;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
-import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,13 +18,17 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @CommandPermissions(permission = "plex.mobpurge", source = RequiredCommandSource.ANY)
 @CommandParameters(name = "mobpurge", description = "Purge all mobs.", usage = "/<command> [mob]", aliases = "mp")
 public class MobPurgeCMD extends PlexCommand
 {
-    private final List<EntityType> MOB_TYPES = new ArrayList<>();
+    private static final Set<EntityType> MOB_TYPES = Arrays.stream(EntityType.values()).filter(EntityType::isAlive).filter(EntityType::isSpawnable).collect(Collectors.toCollection(() -> EnumSet.noneOf(EntityType.class)));
 
     @Override
     protected Component execute(@NotNull CommandSender sender, @Nullable Player playerSender, @NotNull String[] args)
@@ -59,18 +60,23 @@ public class MobPurgeCMD extends PlexCommand
             mobName = WordUtils.capitalizeFully(type.name().replace("_", " "));
             PlexLog.debug("The args aren't null so the mob is: " + mobName);
         }
-        int count = purgeMobs(type);
-        if (type != null)
-        {
-            PlexUtils.broadcast(messageComponent("removedEntitiesOfTypes", sender.getName(), count, mobName));
-            PlexLog.debug("All " + count + " of " + mobName + " were removed");
-        }
-        else
+        EntityType purged = type;
+        String purgedName = mobName;
+        purgeMobs(type).thenAccept(result ->
         {
-            PlexUtils.broadcast(messageComponent("removedMobs", sender.getName(), count));
-            PlexLog.debug("All " + count + " valid mobs were removed");
-        }
-        sender.sendMessage(messageComponent("amountOfMobsRemoved", count, (type != null ? mobName : "mob") + multipleS(count)));
+            int count = result.total();
+            if (purged != null)
+            {
+                PlexUtils.broadcast(messageComponent("removedEntitiesOfTypes", sender.getName(), count, purgedName));
+                PlexLog.debug("All " + count + " of " + purgedName + " were removed");
+            }
+            else
+            {
+                PlexUtils.broadcast(messageComponent("removedMobs", sender.getName(), count));
+                PlexLog.debug("All " + count + " valid mobs were removed");
+            }
+            sender.sendMessage(messageComponent("amountOfMobsRemoved", count, (purged != null ? purgedName : "mob") + multipleS(count)));
+        });
         return null;
     }
 
@@ -79,31 +85,23 @@ public class MobPurgeCMD extends PlexCommand
         return (count == 1 ? "" : "s");
     }
 
-    private int purgeMobs(EntityType type)
+    private CompletableFuture<EntityWipe.Result> purgeMobs(EntityType type)
     {
-        int removed = 0;
-        for (World world : Bukkit.getWorlds())
+        Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+        if (type != null)
         {
-            for (Entity entity : world.getLivingEntities())
-            {
-                if (entity instanceof LivingEntity && !(entity instanceof Player))
-                {
-                    if (type != null && !entity.getType().equals(type))
-                    {
-                        continue;
-                    }
-                    entity.remove();
-                    removed++;
-                }
-            }
+            types.add(type);
+        }
+        else
+        {
+            Arrays.stream(EntityType.values()).filter(EntityType::isAlive).forEach(types::add);
         }
-        return removed;
+        return EntityWipe.start(EntityWipe.Filter.of(types));
     }
 
     private List<String> getAllMobs()
     {
         List<String> mobs = new ArrayList<>();
-        Arrays.stream(EntityType.values()).filter(EntityType::isAlive).filter(EntityType::isSpawnable).forEach(MOB_TYPES::add);
         for (EntityType entityType : MOB_TYPES)
         {
             mobs.add(entityType.name());
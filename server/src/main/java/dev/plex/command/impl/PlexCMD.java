@@ -5,6 +5,7 @@ import dev.plex.command.annotation.CommandParameters;
 import dev.plex.command.annotation.CommandPermissions;
 import dev.plex.command.exception.CommandFailException;
 import dev.plex.command.source.RequiredCommandSource;
+import dev.plex.entity.ChunkWalk;
 import dev.plex.module.PlexModule;
 import dev.plex.module.PlexModuleFile;
 import dev.plex.util.BuildInfo;
@@ -22,10 +23,11 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @CommandPermissions(source = RequiredCommandSource.ANY)
-@CommandParameters(name = "plex", usage = "/<command> [reload | redis | modules [reload]]", description = "Show information about Plex or reload it")
+@CommandParameters(name = "plex", usage = "/<command> [reload | redis | redstone | physics | modules [reload]]", description = "Show information about Plex or reload it")
 public class PlexCMD extends PlexCommand
 {
     // Don't modify this command
@@ -54,6 +56,7 @@ public class PlexCMD extends PlexCommand
             send(sender, "Reloaded indefinite bans");
             plugin.commands.load();
             send(sender, "Reloaded blocked commands file");
+            plugin.reloadPolicy();
             if (!plugin.getServer().getPluginManager().isPluginEnabled("Vault"))
             {
                 throw new RuntimeException("Vault is required to run on the server if you use permissions!");
@@ -79,6 +82,45 @@ public class PlexCMD extends PlexCommand
             plugin.getRedisConnection().getJedis().close();
             return null;
         }
+        else if (args[0].equalsIgnoreCase("redstone"))
+        {
+            checkPermission(sender, "plex.redstone");
+            List<Map.Entry<ChunkWalk.ChunkPos, Integer>> hottest = plugin.getRedstoneMonitor().hottestChunks(10);
+            if (hottest.isEmpty())
+            {
+                return messageComponent("redstoneReportEmpty", plugin.getRedstoneMonitor().getWindowMillis() / 1000);
+            }
+            double seconds = plugin.getRedstoneMonitor().getWindowMillis() / 1000.0;
+            send(sender, messageComponent("redstoneReportHeader", plugin.getRedstoneMonitor().getWindowMillis() / 1000));
+            for (Map.Entry<ChunkWalk.ChunkPos, Integer> entry : hottest)
+            {
+                ChunkWalk.ChunkPos pos = entry.getKey();
+                send(sender, messageComponent("redstoneReportChunk", pos.worldName(), pos.x(), pos.z(), entry.getValue(), String.format("%.1f", entry.getValue() / seconds)));
+            }
+            return null;
+        }
+        else if (args[0].equalsIgnoreCase("physics"))
+        {
+            checkPermission(sender, "plex.physics");
+            List<Map.Entry<ChunkWalk.ChunkPos, Integer>> physics = plugin.getPhysicsBudget().throttled(10);
+            List<Map.Entry<ChunkWalk.ChunkPos, Integer>> falling = plugin.getFallingBlockBudget().throttled(10);
+            if (physics.isEmpty() && falling.isEmpty())
+            {
+                return messageComponent("physicsReportEmpty");
+            }
+            send(sender, messageComponent("physicsReportHeader"));
+            for (Map.Entry<ChunkWalk.ChunkPos, Integer> entry : physics)
+            {
+                ChunkWalk.ChunkPos pos = entry.getKey();
+                send(sender, messageComponent("physicsReportChunk", pos.worldName(), pos.x(), pos.z(), entry.getValue(), "physics updates"));
+            }
+            for (Map.Entry<ChunkWalk.ChunkPos, Integer> entry : falling)
+            {
+                ChunkWalk.ChunkPos pos = entry.getKey();
+                send(sender, messageComponent("physicsReportChunk", pos.worldName(), pos.x(), pos.z(), entry.getValue(), "falling blocks"));
+            }
+            return null;
+        }
         else if (args[0].equalsIgnoreCase("modules"))
         {
             if (args.length == 1)
@@ -130,7 +172,7 @@ public class PlexCMD extends PlexCommand
     {
         if (args.length == 1)
         {
-            return Arrays.asList("reload", "redis", "modules");
+            return Arrays.asList("reload", "redis", "redstone", "physics", "modules");
         }
         else if (args[0].equalsIgnoreCase("modules"))
         {
@@ -33,6 +33,7 @@ public class ToggleCMD extends PlexCommand
                 sender.sendMessage(PlexUtils.mmDeserialize("<gray>  - Drops" + status("drops")));
                 sender.sendMessage(PlexUtils.mmDeserialize("<gray>  - Redstone" + status("redstone")));
                 sender.sendMessage(PlexUtils.mmDeserialize("<gray>  - Chat" + status("chat")));
+                sender.sendMessage(PlexUtils.mmDeserialize("<gray>  - Physics" + status("physics")));
                 return null;
             }
             switch (args[0].toLowerCase())
@@ -53,9 +54,17 @@ public class ToggleCMD extends PlexCommand
                 {
                     return toggle("redstone");
                 }
+                case "physics" ->
+                {
+                    return toggle("physics");
+                }
                 case "chat" ->
                 {
-                    PlexUtils.broadcast(PlexUtils.messageComponent("chatToggled", sender.getName(), plugin.toggles.getBoolean("chat") ? "off" : "on"));
+                    if (plugin.getToggleState().isSuppressed("chat"))
+                    {
+                        return messageComponent("toggleHeldOff", "chat");
+                    }
+                    PlexUtils.broadcast(PlexUtils.messageComponent("chatToggled", sender.getName(), plugin.getToggleState().get("chat") ? "off" : "on"));
                     return toggle("chat");
                 }
                 default ->
@@ -76,12 +85,21 @@ public class ToggleCMD extends PlexCommand
 
     private String status(String toggle)
     {
-        return plugin.toggles.getBoolean(toggle) ? " (enabled)" : " (disabled)";
+        if (plugin.getToggleState().isSuppressed(toggle))
+        {
+            return " (held off by lag protection)";
+        }
+        return plugin.getToggleState().get(toggle) ? " (enabled)" : " (disabled)";
     }
 
     private Component toggle(String toggle)
     {
-        plugin.toggles.set(toggle, !plugin.getToggles().getBoolean(toggle));
+        // Flipping the file value while it is held off would write the opposite of what the sender sees
+        if (plugin.getToggleState().isSuppressed(toggle))
+        {
+            return messageComponent("toggleHeldOff", toggle);
+        }
+        plugin.getToggleState().toggle(toggle);
         return Component.text("Toggled " + toggle + status(toggle)).color(NamedTextColor.GRAY);
     }
 }
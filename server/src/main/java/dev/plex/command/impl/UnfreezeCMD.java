@@ -40,6 +40,7 @@ public class UnfreezeCMD extends PlexCommand
             throw new CommandFailException(PlexUtils.messageString("playerNotFrozen"));
         }
         punishedPlayer.setFrozen(false);
+        plugin.getPunishmentManager().getExpiryScheduler().cancel(punishedPlayer.getUuid(), PunishmentType.FREEZE);
         punishedPlayer.getPunishments().stream().filter(punishment -> punishment.getType() == PunishmentType.FREEZE && punishment.isActive()).forEach(punishment -> {
             punishment.setActive(false);
             plugin.getSqlPunishment().updatePunishment(punishment.getType(), false, punishment.getPunished());
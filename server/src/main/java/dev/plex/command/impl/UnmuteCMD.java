@@ -40,6 +40,7 @@ public class UnmuteCMD extends PlexCommand
             throw new CommandFailException(PlexUtils.messageString("playerNotMuted"));
         }
         punishedPlayer.setMuted(false);
+        plugin.getPunishmentManager().getExpiryScheduler().cancel(punishedPlayer.getUuid(), PunishmentType.MUTE);
         punishedPlayer.getPunishments().stream().filter(punishment -> punishment.getType() == PunishmentType.MUTE && punishment.isActive()).forEach(punishment -> {
             punishment.setActive(false);
             plugin.getSqlPunishment().updatePunishment(punishment.getType(), false, punishment.getPunished());
@@ -0,0 +1,384 @@
+package dev.plex.config;
+
+import dev.plex.Plex;
+import dev.plex.entity.EntityCategory;
+import dev.plex.util.PlexLog;
+import dev.plex.util.PlexUtils;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rules listeners check on every event, compiled from config.yml and commands.yml. A policy never changes once
+ * built; reloading builds a new one and swaps it in, so listeners never see a half loaded state.
+ *
+ * @see ToggleState
+ */
+public final class Policy
+{
+    private final Map<String, WorldRules> worlds;
+    private final Set<Material> blockedBlocks;
+    private final Set<EntityType> blockedEntities;
+    private final Set<String> blockOnMute;
+    private final boolean entityCaps;
+    private final int[] chunkCaps;
+    private final int[] worldCaps;
+    private final RedstoneRules redstone;
+    private final int fluidChunkLimit;
+    private final ExplosionRules explosions;
+    private final PhysicsRules physics;
+    private final DispenserRules dispensers;
+
+    /**
+     * The policy as compiled, before its budgets were scaled
+     */
+    private final Policy base;
+    private final double budgetScale;
+
+    private Policy(Map<String, WorldRules> worlds, Set<Material> blockedBlocks, Set<EntityType> blockedEntities, Set<String> blockOnMute,
+                   boolean entityCaps, int[] chunkCaps, int[] worldCaps, RedstoneRules redstone, int fluidChunkLimit, ExplosionRules explosions,
+                   PhysicsRules physics, DispenserRules dispensers)
+    {
+        this.worlds = worlds;
+        this.blockedBlocks = blockedBlocks;
+        this.blockedEntities = blockedEntities;
+        this.blockOnMute = blockOnMute;
+        this.entityCaps = entityCaps;
+        this.chunkCaps = chunkCaps;
+        this.worldCaps = worldCaps;
+        this.redstone = redstone;
+        this.fluidChunkLimit = fluidChunkLimit;
+        this.explosions = explosions;
+        this.physics = physics;
+        this.dispensers = dispensers;
+        this.base = null;
+        this.budgetScale = 1;
+    }
+
+    private Policy(Policy base, double budgetScale)
+    {
+        this.worlds = base.worlds;
+        this.blockedBlocks = base.blockedBlocks;
+        this.blockedEntities = base.blockedEntities;
+        this.blockOnMute = base.blockOnMute;
+        this.entityCaps = base.entityCaps;
+        this.chunkCaps = base.chunkCaps;
+        this.worldCaps = base.worldCaps;
+        this.redstone = new RedstoneRules(base.redstone.windowMillis(), scale(base.redstone.blockLimit(), budgetScale),
+                scale(base.redstone.chunkLimit(), budgetScale), base.redstone.action());
+        this.fluidChunkLimit = scale(base.fluidChunkLimit, budgetScale);
+        this.explosions = new ExplosionRules(scale(base.explosions.perTick(), budgetScale), base.explosions.defer(),
+                base.explosions.deferTicks(), base.explosions.maxDefers());
+        this.physics = new PhysicsRules(scale(base.physics.perChunk(), budgetScale), scale(base.physics.fallingBlocks(), budgetScale));
+        this.dispensers = base.dispensers;
+        this.base = base;
+        this.budgetScale = budgetScale;
+    }
+
+    /**
+     * Compiles a policy from the currently loaded configuration files
+     *
+     * @param plugin The plugin instance
+     * @return the compiled policy
+     */
+    public static Policy compile(Plex plugin)
+    {
+        Map<String, WorldRules> worlds = new HashMap<>();
+        ConfigurationSection section = plugin.config.getConfigurationSection("worlds");
+        if (section != null)
+        {
+            for (String key : section.getKeys(false))
+            {
+                ConfigurationSection world = section.getConfigurationSection(key);
+                if (world == null)
+                {
+                    continue;
+                }
+                worlds.put(key.toLowerCase(Locale.ROOT), new WorldRules(
+                        world.getString("modification.permission"),
+                        deserialize(world.getString("modification.message")),
+                        world.getString("entry.permission"),
+                        deserialize(world.getString("entry.message"))));
+            }
+        }
+
+        EnumSet<Material> blockedBlocks = EnumSet.noneOf(Material.class);
+        for (String block : plugin.config.getStringList("blocked_blocks"))
+        {
+            try
+            {
+                blockedBlocks.add(Material.valueOf(block.toUpperCase(Locale.ROOT)));
+            }
+            catch (IllegalArgumentException e)
+            {
+                PlexLog.warn("Unknown block '{0}' in blocked_blocks", block);
+            }
+        }
+
+        EnumSet<EntityType> blockedEntities = EnumSet.noneOf(EntityType.class);
+        for (String entity : plugin.config.getStringList("blocked_entities"))
+        {
+            try
+            {
+                blockedEntities.add(EntityType.valueOf(entity.toUpperCase(Locale.ROOT)));
+            }
+            catch (IllegalArgumentException e)
+            {
+                PlexLog.warn("Unknown entity '{0}' in blocked_entities", entity);
+            }
+        }
+
+        Set<String> blockOnMute = new HashSet<>();
+        plugin.commands.getStringList("block_on_mute").forEach(command -> blockOnMute.add(command.toLowerCase(Locale.ROOT)));
+
+        EntityCategory[] categories = EntityCategory.values();
+        int[] chunkCaps = new int[categories.length];
+        int[] worldCaps = new int[categories.length];
+        for (EntityCategory category : categories)
+        {
+            chunkCaps[category.ordinal()] = plugin.config.getInt("entity_caps." + category.getConfigName() + ".chunk", 0);
+            worldCaps[category.ordinal()] = plugin.config.getInt("entity_caps." + category.getConfigName() + ".world", 0);
+        }
+
+        RedstoneAction redstoneAction;
+        try
+        {
+            redstoneAction = RedstoneAction.valueOf(plugin.config.getString("redstone.action", "throttle").toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            PlexLog.warn("Unknown redstone action '{0}', using throttle", plugin.config.getString("redstone.action"));
+            redstoneAction = RedstoneAction.THROTTLE;
+        }
+        RedstoneRules redstone = new RedstoneRules(Math.max(1000L, plugin.config.getLong("redstone.window", 5000)),
+                plugin.config.getInt("redstone.block_limit", 50), plugin.config.getInt("redstone.chunk_limit", 2000), redstoneAction);
+
+        ExplosionRules explosions = new ExplosionRules(plugin.config.getInt("explosion_budget.per_tick", 16),
+                !plugin.config.getString("explosion_budget.action", "defer").equalsIgnoreCase("cancel"),
+                Math.max(1, plugin.config.getInt("explosion_budget.defer_ticks", 2)), plugin.config.getInt("explosion_budget.max_defers", 10));
+
+        DispenserRules dispensers = new DispenserRules(plugin.config.getDouble("dispenser_eggs.block.rate", 1), plugin.config.getInt("dispenser_eggs.block.burst", 4),
+                plugin.config.getDouble("dispenser_eggs.chunk.rate", 4), plugin.config.getInt("dispenser_eggs.chunk.burst", 16));
+
+        return new Policy(Collections.unmodifiableMap(worlds), Collections.unmodifiableSet(blockedBlocks), Collections.unmodifiableSet(blockedEntities), Collections.unmodifiableSet(blockOnMute),
+                plugin.config.getBoolean("entity_caps.enabled", true), chunkCaps, worldCaps, redstone, plugin.config.getInt("fluid_budget.per_chunk", 400), explosions,
+                new PhysicsRules(plugin.config.getInt("physics_budget.per_chunk", 20000), plugin.config.getInt("physics_budget.falling_blocks", 64)), dispensers);
+    }
+
+    /**
+     * Gets a copy of this policy with its redstone, fluid, explosion and physics budgets scaled. Limits that are off
+     * stay off, and scaling never brings a limit below one.
+     *
+     * @param budgetScale The factor to scale the budgets as compiled by
+     * @return the scaled policy
+     */
+    public Policy withBudgetScale(double budgetScale)
+    {
+        Policy compiled = base == null ? this : base;
+        return budgetScale == 1 ? compiled : new Policy(compiled, budgetScale);
+    }
+
+    public double getBudgetScale()
+    {
+        return budgetScale;
+    }
+
+    private static int scale(int limit, double scale)
+    {
+        return limit <= 0 ? limit : Math.max(1, (int) Math.round(limit * scale));
+    }
+
+    private static Component deserialize(String message)
+    {
+        return message == null ? null : PlexUtils.mmDeserialize(message);
+    }
+
+    /**
+     * Gets the rules of a world
+     *
+     * @param world The world
+     * @return the rules of the world, which allow everything if the world isn't configured
+     */
+    public WorldRules getWorld(World world)
+    {
+        return worlds.getOrDefault(world.getName().toLowerCase(Locale.ROOT), WorldRules.NONE);
+    }
+
+    public boolean isBlockedBlock(Material material)
+    {
+        return blockedBlocks.contains(material);
+    }
+
+    public boolean isBlockedEntity(EntityType type)
+    {
+        return blockedEntities.contains(type);
+    }
+
+    public boolean isEntityCapsEnabled()
+    {
+        return entityCaps;
+    }
+
+    /**
+     * Gets the most entities of a category allowed in one chunk
+     *
+     * @param category The entity category
+     * @return the cap, or 0 or less if there is no cap
+     */
+    public int getChunkCap(EntityCategory category)
+    {
+        return chunkCaps[category.ordinal()];
+    }
+
+    /**
+     * Gets the most entities of a category allowed in one world
+     *
+     * @param category The entity category
+     * @return the cap, or 0 or less if there is no cap
+     */
+    public int getWorldCap(EntityCategory category)
+    {
+        return worldCaps[category.ordinal()];
+    }
+
+    public RedstoneRules getRedstone()
+    {
+        return redstone;
+    }
+
+    /**
+     * Gets how often fluids may flow in one chunk per second
+     *
+     * @return the limit, or 0 or less if there is no limit
+     */
+    public int getFluidChunkLimit()
+    {
+        return fluidChunkLimit;
+    }
+
+    public ExplosionRules getExplosions()
+    {
+        return explosions;
+    }
+
+    public PhysicsRules getPhysics()
+    {
+        return physics;
+    }
+
+    /**
+     * Gets the spawn egg limits of dispensers. They are not scaled with the other budgets, so the same instance is
+     * returned until the config is reloaded.
+     *
+     * @return the dispenser rules
+     */
+    public DispenserRules getDispensers()
+    {
+        return dispensers;
+    }
+
+    /**
+     * Checks if a command is blocked for muted players, or for everyone while chat is toggled off
+     *
+     * @param label The command label without the slash or arguments, which may be an alias
+     * @return true if the command is blocked
+     */
+    public boolean isBlockedOnMute(String label)
+    {
+        String lowercase = label.toLowerCase(Locale.ROOT);
+        if (blockOnMute.contains(lowercase))
+        {
+            return true;
+        }
+        // Aliases are resolved through the command map as plugins may register them after the policy was built
+        Command command = Bukkit.getCommandMap().getCommand(lowercase);
+        return command != null && blockOnMute.contains(command.getName().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The rules of a world from the worlds section of config.yml
+     *
+     * @param modifyPermission The permission needed to modify the world, or null if anyone may
+     * @param modifyMessage    The message shown when a player can't modify the world, or null
+     * @param entryPermission  The permission needed to enter the world, or null if anyone may
+     * @param entryMessage     The message shown when a player can't enter the world, or null
+     */
+    public record WorldRules(String modifyPermission, Component modifyMessage, String entryPermission, Component entryMessage)
+    {
+        public static final WorldRules NONE = new WorldRules(null, null, null, null);
+    }
+
+    /**
+     * The limits of the redstone section of config.yml
+     *
+     * @param windowMillis The length of the window redstone changes are counted over
+     * @param blockLimit   The changes of one block within the window before it is treated as a clock, or 0 or less for no limit
+     * @param chunkLimit   The changes in one chunk within the window before its redstone is cut, or 0 or less for no limit
+     * @param action       What happens to a block once it is treated as a clock
+     */
+    public record RedstoneRules(long windowMillis, int blockLimit, int chunkLimit, RedstoneAction action)
+    {
+    }
+
+    /**
+     * The limits of the explosion_budget section of config.yml
+     *
+     * @param perTick    The explosions allowed in one world per tick, or 0 or less for no limit
+     * @param defer      Whether TNT past the budget explodes later instead of being cancelled
+     * @param deferTicks How many ticks deferred TNT waits before trying again
+     * @param maxDefers  How often the same TNT may be deferred before it is cancelled
+     */
+    public record ExplosionRules(int perTick, boolean defer, int deferTicks, int maxDefers)
+    {
+    }
+
+    /**
+     * The limits of the physics_budget section of config.yml
+     *
+     * @param perChunk      The block physics updates allowed in one chunk per second, or 0 or less for no limit
+     * @param fallingBlocks The blocks allowed to start falling in one chunk per second, or 0 or less for no limit
+     */
+    public record PhysicsRules(int perChunk, int fallingBlocks)
+    {
+    }
+
+    /**
+     * The limits of the dispenser_eggs section of config.yml
+     *
+     * @param blockRate  The spawn eggs one dispenser may fire per second
+     * @param blockBurst The spawn eggs one dispenser may fire at once
+     * @param chunkRate  The spawn eggs all dispensers in one chunk may fire per second
+     * @param chunkBurst The spawn eggs all dispensers in one chunk may fire at once
+     */
+    public record DispenserRules(double blockRate, int blockBurst, double chunkRate, int chunkBurst)
+    {
+    }
+
+    public enum RedstoneAction
+    {
+        /**
+         * Only report the clock to staff
+         */
+        LOG,
+        /**
+         * Cut the power of the clock until it calms down
+         */
+        THROTTLE,
+        /**
+         * Break the block driving the clock
+         */
+        BREAK
+    }
+}
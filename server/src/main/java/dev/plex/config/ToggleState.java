@@ -0,0 +1,121 @@
+package dev.plex.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The toggles from toggles.yml as volatile fields, so the redstone, fluid, explosion and physics listeners check a field instead
+ * of looking up the configuration on every event. Changes go through {@link #set(String, boolean)}, which also
+ * updates the loaded toggles configuration. Toggles can also be held off temporarily without touching the file, which
+ * is how lag protection switches them off.
+ */
+@Getter
+public class ToggleState
+{
+    @Getter(AccessLevel.NONE)
+    private final Config toggles;
+
+    private volatile boolean explosions;
+    private volatile boolean fluidSpread;
+    private volatile boolean drops;
+    private volatile boolean redstone;
+    private volatile boolean chat;
+    private volatile boolean physics;
+
+    /**
+     * The toggles held off regardless of toggles.yml
+     */
+    private volatile Set<String> suppressed = Set.of();
+
+    public ToggleState(Config toggles)
+    {
+        this.toggles = toggles;
+        reload();
+    }
+
+    /**
+     * Reads every toggle from the toggles file again
+     */
+    public void reload()
+    {
+        explosions = configured("explosions");
+        fluidSpread = configured("fluidspread");
+        drops = configured("drops");
+        redstone = configured("redstone");
+        chat = configured("chat");
+        physics = configured("physics");
+    }
+
+    private boolean configured(String toggle)
+    {
+        return toggles.getBoolean(toggle) && !suppressed.contains(toggle);
+    }
+
+    /**
+     * Holds toggles off until they are released again, without changing toggles.yml
+     *
+     * @param suppressed The names of the toggles to hold off, replacing the ones held off before
+     */
+    public void setSuppressed(Set<String> suppressed)
+    {
+        Set<String> names = new HashSet<>();
+        suppressed.forEach(toggle -> names.add(toggle.toLowerCase(Locale.ROOT)));
+        this.suppressed = Set.copyOf(names);
+        reload();
+    }
+
+    public boolean isSuppressed(String toggle)
+    {
+        return suppressed.contains(toggle.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets a toggle by its name in toggles.yml
+     *
+     * @param toggle The name of the toggle
+     * @return whether the toggle is enabled, which is false while it is held off
+     */
+    public boolean get(String toggle)
+    {
+        return switch (toggle.toLowerCase(Locale.ROOT))
+        {
+            case "explosions" -> explosions;
+            case "fluidspread" -> fluidSpread;
+            case "drops" -> drops;
+            case "redstone" -> redstone;
+            case "chat" -> chat;
+            case "physics" -> physics;
+            default -> toggles.getBoolean(toggle);
+        };
+    }
+
+    /**
+     * Changes a toggle
+     *
+     * @param toggle  The name of the toggle in toggles.yml
+     * @param enabled Whether the toggle should be enabled
+     */
+    public void set(String toggle, boolean enabled)
+    {
+        toggles.set(toggle, enabled);
+        reload();
+    }
+
+    /**
+     * Flips a toggle in toggles.yml. A toggle that is held off stays off until it is released, and callers should refuse
+     * to flip it meanwhile, as {@link #get(String)} shows it off whatever the file says.
+     *
+     * @param toggle The name of the toggle in toggles.yml
+     * @return whether the toggle is now enabled in toggles.yml
+     */
+    public boolean toggle(String toggle)
+    {
+        boolean enabled = !toggles.getBoolean(toggle);
+        set(toggle, enabled);
+        return enabled;
+    }
+}
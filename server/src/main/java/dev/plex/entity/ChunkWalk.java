@@ -0,0 +1,219 @@
+package dev.plex.entity;
+
+import dev.plex.Plex;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Visits loaded chunks one at a time, each on the region that owns it. A walk stops for the tick once it used up its
+ * time budget and continues where it left off on the next tick, so large worlds are spread over many ticks instead of
+ * causing one long one.
+ */
+public class ChunkWalk
+{
+    private final List<ChunkPos> chunks;
+    private final Consumer<Chunk> visitor;
+    private final long budgetNanos;
+    private final CompletableFuture<Stats> future = new CompletableFuture<>();
+    private final long started = System.nanoTime();
+    private int cursor = 0;
+    private int steps = 0;
+
+    private ChunkWalk(List<ChunkPos> chunks, Consumer<Chunk> visitor, double budgetMillis)
+    {
+        this.chunks = chunks;
+        this.visitor = visitor;
+        this.budgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+    }
+
+    /**
+     * Walks every loaded chunk accepted by a filter
+     *
+     * @param filter       Which chunks to visit
+     * @param visitor      The work done for each chunk
+     * @param budgetMillis How long the walk may run per tick
+     * @return a future completed once every chunk was visited
+     */
+    public static CompletableFuture<Stats> start(ChunkFilter filter, Consumer<Chunk> visitor, double budgetMillis)
+    {
+        ChunkWalk walk = new ChunkWalk(new ArrayList<>(), visitor, budgetMillis);
+        try
+        {
+            // Listing a world's loaded chunks directly is only safe on the regions that own them, so the walk starts
+            // from the chunks tracked through load and unload events
+            for (World world : Bukkit.getWorlds())
+            {
+                if (!filter.includesWorld(world))
+                {
+                    continue;
+                }
+                for (ChunkPos pos : Plex.get().getLoadedChunks().snapshot(world))
+                {
+                    if (filter.includesChunk(world, pos.x(), pos.z()))
+                    {
+                        walk.chunks.add(pos);
+                    }
+                }
+            }
+            walk.begin();
+        }
+        catch (RuntimeException e)
+        {
+            walk.future.completeExceptionally(e);
+        }
+        return walk.future;
+    }
+
+    /**
+     * Walks a known set of chunks, skipping those that are no longer loaded
+     *
+     * @param chunks       The chunks to visit
+     * @param visitor      The work done for each chunk
+     * @param budgetMillis How long the walk may run per tick
+     * @return a future completed once every chunk was visited
+     */
+    public static CompletableFuture<Stats> start(List<ChunkPos> chunks, Consumer<Chunk> visitor, double budgetMillis)
+    {
+        ChunkWalk walk = new ChunkWalk(new ArrayList<>(chunks), visitor, budgetMillis);
+        walk.begin();
+        return walk.future;
+    }
+
+    private void begin()
+    {
+        // Grouping chunks by region file keeps consecutive chunks on the same region, so fewer hops are needed
+        chunks.sort(Comparator.comparing(ChunkPos::worldId)
+                .thenComparingInt(pos -> pos.x() >> 5)
+                .thenComparingInt(pos -> pos.z() >> 5)
+                .thenComparingInt(ChunkPos::x)
+                .thenComparingInt(ChunkPos::z));
+        schedule(false);
+    }
+
+    private void schedule(boolean nextTick)
+    {
+        // Skips chunks of worlds that unloaded since the walk started
+        while (cursor < chunks.size() && chunks.get(cursor).world() == null)
+        {
+            cursor++;
+        }
+        if (cursor >= chunks.size())
+        {
+            finish();
+            return;
+        }
+        ChunkPos pos = chunks.get(cursor);
+        World world = pos.world();
+        if (nextTick)
+        {
+            Bukkit.getRegionScheduler().runDelayed(Plex.get(), world, pos.x(), pos.z(), this::step, 1);
+        }
+        else
+        {
+            Bukkit.getRegionScheduler().run(Plex.get(), world, pos.x(), pos.z(), this::step);
+        }
+    }
+
+    private void step(ScheduledTask task)
+    {
+        try
+        {
+            steps++;
+            long deadline = System.nanoTime() + budgetNanos;
+            int handled = 0;
+            while (cursor < chunks.size())
+            {
+                ChunkPos pos = chunks.get(cursor);
+                World world = pos.world();
+                if (world == null)
+                {
+                    cursor++;
+                    continue;
+                }
+                if (!Bukkit.isOwnedByCurrentRegion(world, pos.x(), pos.z()))
+                {
+                    schedule(false);
+                    return;
+                }
+                if (handled > 0 && System.nanoTime() - deadline > 0)
+                {
+                    schedule(true);
+                    return;
+                }
+                cursor++;
+                handled++;
+                if (world.isChunkLoaded(pos.x(), pos.z()))
+                {
+                    visitor.accept(world.getChunkAt(pos.x(), pos.z()));
+                }
+            }
+            finish();
+        }
+        catch (RuntimeException e)
+        {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void finish()
+    {
+        future.complete(new Stats(chunks.size(), steps, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+    }
+
+    /**
+     * Decides which loaded chunks a walk visits
+     */
+    public interface ChunkFilter
+    {
+        default boolean includesWorld(World world)
+        {
+            return true;
+        }
+
+        boolean includesChunk(World world, int chunkX, int chunkZ);
+    }
+
+    /**
+     * A chunk, keyed by the unique ID of its world so positions held on to don't keep an unloaded world in memory
+     */
+    public record ChunkPos(UUID worldId, int x, int z)
+    {
+        public static ChunkPos of(World world, int x, int z)
+        {
+            return new ChunkPos(world.getUID(), x, z);
+        }
+
+        /**
+         * @return the world, or null if it's no longer loaded
+         */
+        public World world()
+        {
+            return Bukkit.getWorld(worldId);
+        }
+
+        public String worldName()
+        {
+            World world = world();
+            return world != null ? world.getName() : worldId.toString();
+        }
+    }
+
+    /**
+     * @param chunks         The number of chunks visited
+     * @param ticks          The number of region ticks the walk was spread over
+     * @param durationMillis The time from starting until finishing the walk
+     */
+    public record Stats(int chunks, int ticks, long durationMillis)
+    {
+    }
+}
@@ -0,0 +1,86 @@
+package dev.plex.entity;
+
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Boat;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemFrame;
+import org.bukkit.entity.Minecart;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Projectile;
+
+import java.util.Locale;
+
+/**
+ * Groups of entity types that entity caps are configured for
+ */
+public enum EntityCategory
+{
+    MOBS(Mob.class),
+    ITEMS(Item.class),
+    ARMOR_STANDS(ArmorStand.class),
+    VEHICLES(Minecart.class, Boat.class),
+    ITEM_FRAMES(ItemFrame.class),
+    PROJECTILES(Projectile.class);
+
+    private static final EntityCategory[] BY_TYPE = new EntityCategory[EntityType.values().length];
+
+    static
+    {
+        for (EntityType type : EntityType.values())
+        {
+            Class<? extends Entity> entityClass = type.getEntityClass();
+            if (entityClass == null)
+            {
+                continue;
+            }
+            for (EntityCategory category : values())
+            {
+                if (category.matches(entityClass))
+                {
+                    BY_TYPE[type.ordinal()] = category;
+                    break;
+                }
+            }
+        }
+    }
+
+    private final Class<?>[] classes;
+
+    EntityCategory(Class<?>... classes)
+    {
+        this.classes = classes;
+    }
+
+    private boolean matches(Class<? extends Entity> entityClass)
+    {
+        for (Class<?> clazz : classes)
+        {
+            if (clazz.isAssignableFrom(entityClass))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the category of an entity type
+     *
+     * @param type The entity type
+     * @return the category, or null if the type isn't in any category
+     */
+    public static EntityCategory of(EntityType type)
+    {
+        return BY_TYPE[type.ordinal()];
+    }
+
+    /**
+     * @return the name of the category in config.yml
+     */
+    public String getConfigName()
+    {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,428 @@
+package dev.plex.entity;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts of the entities in every world, per chunk and per type, kept up to date from entity add and remove events
+ * rather than by scanning. Entities are counted in the chunk they were added in, so per chunk counts drift as entities
+ * wander until the next {@link #resync(Chunk)} of the chunks involved; world counts are always exact.
+ */
+public class EntityCensus
+{
+    private static final EntityType[] TYPES = EntityType.values();
+    private static final EntityCategory[] CATEGORIES = EntityCategory.values();
+    private static final int TOTAL_SLOT = TYPES.length;
+
+    /**
+     * The slot in a chunk's counts holding the category of each entity type, or -1 if the type has no category
+     */
+    private static final int[] CATEGORY_SLOTS = new int[TYPES.length];
+
+    static
+    {
+        for (EntityType type : TYPES)
+        {
+            EntityCategory category = EntityCategory.of(type);
+            CATEGORY_SLOTS[type.ordinal()] = category == null ? -1 : categorySlot(category);
+        }
+    }
+
+    private final Map<UUID, WorldCounts> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Where every counted entity was counted, by entity ID
+     */
+    private final Map<Integer, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private volatile boolean synced = false;
+
+    public void add(Entity entity)
+    {
+        Location location = entity.getLocation();
+        Tracked entry = new Tracked(entity.getWorld().getUID(), chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), entity.getType().ordinal());
+        Tracked previous = tracked.put(entity.getEntityId(), entry);
+        if (previous != null)
+        {
+            counts(previous.world()).remove(previous.chunk(), previous.type());
+        }
+        counts(entry.world()).add(entry.chunk(), entry.type());
+    }
+
+    public void remove(Entity entity)
+    {
+        Tracked previous = tracked.remove(entity.getEntityId());
+        if (previous != null)
+        {
+            counts(previous.world()).remove(previous.chunk(), previous.type());
+        }
+    }
+
+    /**
+     * Moves the entities of a chunk that were counted elsewhere back to it. Must be called on the chunk's region.
+     *
+     * @param chunk The loaded chunk
+     */
+    public void resync(Chunk chunk)
+    {
+        long key = chunkKey(chunk.getX(), chunk.getZ());
+        UUID world = chunk.getWorld().getUID();
+        for (Entity entity : chunk.getEntities())
+        {
+            Tracked entry = tracked.get(entity.getEntityId());
+            if (entry == null || entry.chunk() != key || !entry.world().equals(world))
+            {
+                add(entity);
+            }
+        }
+    }
+
+    public void removeWorld(World world)
+    {
+        worlds.remove(world.getUID());
+        tracked.values().removeIf(entry -> entry.world().equals(world.getUID()));
+    }
+
+    /**
+     * Marks the census as complete once every entity that existed before it started has been counted
+     */
+    public void setSynced(boolean synced)
+    {
+        this.synced = synced;
+    }
+
+    public boolean isSynced()
+    {
+        return synced;
+    }
+
+    public int count(World world)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.total();
+    }
+
+    public int count(World world, EntityType type)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.byType(type.ordinal());
+    }
+
+    public int count(World world, EntityCategory category)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.byCategory(category.ordinal());
+    }
+
+    public int countInChunk(World world, int chunkX, int chunkZ)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.inChunk(chunkKey(chunkX, chunkZ), TOTAL_SLOT);
+    }
+
+    public int countInChunk(World world, int chunkX, int chunkZ, EntityCategory category)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.inChunk(chunkKey(chunkX, chunkZ), categorySlot(category));
+    }
+
+    public int countInChunk(World world, int chunkX, int chunkZ, EntityType type)
+    {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : counts.inChunk(chunkKey(chunkX, chunkZ), type.ordinal());
+    }
+
+    /**
+     * Checks if a world may contain any entity of the given types. Always true until the census is synced.
+     *
+     * @param world The world
+     * @param types The entity types
+     * @return false if the world certainly has none of the types
+     */
+    public boolean hasAny(World world, Set<EntityType> types)
+    {
+        if (!synced)
+        {
+            return true;
+        }
+        WorldCounts counts = worlds.get(world.getUID());
+        if (counts == null)
+        {
+            return false;
+        }
+        for (EntityType type : types)
+        {
+            if (counts.byType(type.ordinal()) > 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of entities of every type that currently exists
+     *
+     * @param world The world to count, or null for every world
+     * @return the counts by type, only containing types with at least one entity
+     */
+    public Map<EntityType, Integer> countsByType(World world)
+    {
+        int[] sums = new int[TYPES.length];
+        for (Map.Entry<UUID, WorldCounts> entry : worlds.entrySet())
+        {
+            if (world == null || world.getUID().equals(entry.getKey()))
+            {
+                entry.getValue().sumTypes(sums);
+            }
+        }
+        Map<EntityType, Integer> counts = new EnumMap<>(EntityType.class);
+        for (int i = 0; i < sums.length; i++)
+        {
+            if (sums[i] > 0)
+            {
+                counts.put(TYPES[i], sums[i]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets every entity type that currently has at least one entity in any world
+     *
+     * @return the entity types
+     */
+    public Set<EntityType> getPresentTypes()
+    {
+        Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+        types.addAll(countsByType(null).keySet());
+        return types;
+    }
+
+    /**
+     * Gets the chunks with the most entities
+     *
+     * @param world The world to check, or null for every world
+     * @param type  The entity type to count, or null for every type
+     * @param limit The maximum number of chunks to return
+     * @return the chunks, most entities first
+     */
+    public List<ChunkCount> topChunks(World world, EntityType type, int limit)
+    {
+        int slot = type == null ? TOTAL_SLOT : type.ordinal();
+        PriorityQueue<ChunkCount> top = new PriorityQueue<>((a, b) -> Integer.compare(a.count(), b.count()));
+        for (World candidate : world == null ? Bukkit.getWorlds() : List.of(world))
+        {
+            WorldCounts counts = worlds.get(candidate.getUID());
+            if (counts == null)
+            {
+                continue;
+            }
+            counts.forEachChunk(slot, (key, count) ->
+            {
+                if (top.size() < limit)
+                {
+                    top.add(new ChunkCount(candidate, (int) (key >> 32), (int) key, count));
+                }
+                else if (limit > 0 && top.peek().count() < count)
+                {
+                    top.poll();
+                    top.add(new ChunkCount(candidate, (int) (key >> 32), (int) key, count));
+                }
+            });
+        }
+        List<ChunkCount> result = new ArrayList<>(top);
+        result.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        return result;
+    }
+
+    /**
+     * Counts the entities in the chunks around a location
+     *
+     * @param location    The center
+     * @param chunkRadius The number of chunks around the center chunk to include
+     * @param type        The entity type to count, or null for every type
+     * @return the number of entities
+     */
+    public int countNear(Location location, int chunkRadius, EntityType type)
+    {
+        WorldCounts counts = worlds.get(location.getWorld().getUID());
+        if (counts == null)
+        {
+            return 0;
+        }
+        int slot = type == null ? TOTAL_SLOT : type.ordinal();
+        int centerX = location.getBlockX() >> 4;
+        int centerZ = location.getBlockZ() >> 4;
+        int total = 0;
+        for (int x = centerX - chunkRadius; x <= centerX + chunkRadius; x++)
+        {
+            for (int z = centerZ - chunkRadius; z <= centerZ + chunkRadius; z++)
+            {
+                total += counts.inChunk(chunkKey(x, z), slot);
+            }
+        }
+        return total;
+    }
+
+    public int getTrackedCount()
+    {
+        return tracked.size();
+    }
+
+    public int getChunkCount()
+    {
+        int chunks = 0;
+        for (WorldCounts counts : worlds.values())
+        {
+            chunks += counts.chunkCount();
+        }
+        return chunks;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ)
+    {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int categorySlot(EntityCategory category)
+    {
+        return TOTAL_SLOT + 1 + category.ordinal();
+    }
+
+    private WorldCounts counts(UUID world)
+    {
+        return worlds.computeIfAbsent(world, key -> new WorldCounts());
+    }
+
+    /**
+     * A chunk and the number of entities counted in it
+     */
+    public record ChunkCount(World world, int x, int z, int count)
+    {
+    }
+
+    private record Tracked(UUID world, long chunk, int type)
+    {
+    }
+
+    /**
+     * The counts of one world. Each chunk holds an array with a slot per entity type, a slot for the total and a slot
+     * per entity category.
+     */
+    private static final class WorldCounts
+    {
+        private final int[] byType = new int[TYPES.length];
+        private final int[] byCategory = new int[CATEGORIES.length];
+        private final Map<Long, int[]> chunks = new HashMap<>();
+        private int total = 0;
+
+        private synchronized void add(long chunk, int type)
+        {
+            int[] counts = chunks.computeIfAbsent(chunk, key -> new int[TOTAL_SLOT + 1 + CATEGORIES.length]);
+            int categorySlot = CATEGORY_SLOTS[type];
+            counts[type]++;
+            counts[TOTAL_SLOT]++;
+            byType[type]++;
+            total++;
+            if (categorySlot != -1)
+            {
+                counts[categorySlot]++;
+                byCategory[categorySlot - TOTAL_SLOT - 1]++;
+            }
+        }
+
+        private synchronized void remove(long chunk, int type)
+        {
+            int categorySlot = CATEGORY_SLOTS[type];
+            int[] counts = chunks.get(chunk);
+            if (counts != null && counts[type] > 0)
+            {
+                counts[type]--;
+                if (categorySlot != -1)
+                {
+                    counts[categorySlot]--;
+                }
+                if (--counts[TOTAL_SLOT] == 0)
+                {
+                    chunks.remove(chunk);
+                }
+            }
+            if (byType[type] > 0)
+            {
+                byType[type]--;
+                total--;
+                if (categorySlot != -1)
+                {
+                    byCategory[categorySlot - TOTAL_SLOT - 1]--;
+                }
+            }
+        }
+
+        private synchronized int total()
+        {
+            return total;
+        }
+
+        private synchronized int byType(int type)
+        {
+            return byType[type];
+        }
+
+        private synchronized int byCategory(int category)
+        {
+            return byCategory[category];
+        }
+
+        private synchronized int inChunk(long chunk, int slot)
+        {
+            int[] counts = chunks.get(chunk);
+            return counts == null ? 0 : counts[slot];
+        }
+
+        private synchronized int chunkCount()
+        {
+            return chunks.size();
+        }
+
+        private synchronized void sumTypes(int[] sums)
+        {
+            for (int i = 0; i < byType.length; i++)
+            {
+                sums[i] += byType[i];
+            }
+        }
+
+        private synchronized void forEachChunk(int slot, ChunkConsumer consumer)
+        {
+            for (Map.Entry<Long, int[]> entry : chunks.entrySet())
+            {
+                int count = entry.getValue()[slot];
+                if (count > 0)
+                {
+                    consumer.accept(entry.getKey(), count);
+                }
+            }
+        }
+    }
+
+    private interface ChunkConsumer
+    {
+        void accept(long chunk, int count);
+    }
+}
@@ -0,0 +1,170 @@
+package dev.plex.entity;
+
+import dev.plex.Plex;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Removes entities matching a filter, one loaded chunk at a time and within a time budget per tick.
+ *
+ * @see ChunkWalk
+ */
+public class EntityWipe
+{
+    /**
+     * Starts wiping every loaded entity matching a filter
+     *
+     * @param filter Which entities to remove
+     * @return a future completed with the removed entity counts once every chunk was visited
+     */
+    public static CompletableFuture<Result> start(Filter filter)
+    {
+        int[] removed = new int[EntityType.values().length];
+        double budget = Plex.get().config.getDouble("entity_wipe.tick_budget", 5);
+        return ChunkWalk.start(filter, chunk ->
+        {
+            for (Entity entity : chunk.getEntities())
+            {
+                if (filter.matches(entity))
+                {
+                    entity.remove();
+                    removed[entity.getType().ordinal()]++;
+                }
+            }
+        }, budget).thenApply(stats -> result(removed, stats));
+    }
+
+    /**
+     * Starts wiping chosen entity types from chosen chunks only. Players are never removed.
+     *
+     * @param targets The entity types to remove from each chunk
+     * @return a future completed with the removed entity counts once every chunk was visited
+     */
+    public static CompletableFuture<Result> start(Map<ChunkWalk.ChunkPos, Set<EntityType>> targets)
+    {
+        int[] removed = new int[EntityType.values().length];
+        double budget = Plex.get().config.getDouble("entity_wipe.tick_budget", 5);
+        return ChunkWalk.start(new ArrayList<>(targets.keySet()), chunk ->
+        {
+            Set<EntityType> types = targets.get(ChunkWalk.ChunkPos.of(chunk.getWorld(), chunk.getX(), chunk.getZ()));
+            for (Entity entity : chunk.getEntities())
+            {
+                if (types.contains(entity.getType()) && entity.getType() != EntityType.PLAYER)
+                {
+                    entity.remove();
+                    removed[entity.getType().ordinal()]++;
+                }
+            }
+        }, budget).thenApply(stats -> result(removed, stats));
+    }
+
+    private static Result result(int[] removed, ChunkWalk.Stats stats)
+    {
+        Map<EntityType, Integer> counts = new EnumMap<>(EntityType.class);
+        int total = 0;
+        EntityType[] types = EntityType.values();
+        for (int i = 0; i < removed.length; i++)
+        {
+            if (removed[i] > 0)
+            {
+                counts.put(types[i], removed[i]);
+                total += removed[i];
+            }
+        }
+        return new Result(Collections.unmodifiableMap(counts), total, stats.chunks(), stats.ticks(), stats.durationMillis());
+    }
+
+    /**
+     * Which entities a wipe removes. Players are never removed.
+     *
+     * @param types  The entity types to remove
+     * @param world  The only world to wipe, or null for every world
+     * @param center The center of the area to wipe, or null for no limit
+     * @param radius The radius around the center to wipe
+     */
+    public record Filter(Set<EntityType> types, World world, Location center, double radius) implements ChunkWalk.ChunkFilter
+    {
+        public Filter
+        {
+            EnumSet<EntityType> copy = EnumSet.noneOf(EntityType.class);
+            copy.addAll(types);
+            copy.remove(EntityType.PLAYER);
+            types = Collections.unmodifiableSet(copy);
+            center = center == null ? null : center.clone();
+        }
+
+        public static Filter of(Set<EntityType> types)
+        {
+            return new Filter(types, null, null, 0);
+        }
+
+        /**
+         * Limits the filter to the area around a location
+         *
+         * @param center The center of the area
+         * @param radius The radius in blocks
+         * @return a new filter
+         */
+        public Filter within(Location center, double radius)
+        {
+            return new Filter(types, center.getWorld(), center, radius);
+        }
+
+        @Override
+        public boolean includesWorld(World world)
+        {
+            if (this.world != null && !this.world.equals(world))
+            {
+                return false;
+            }
+            // World totals in the census are exact, so worlds without any matching entity can be skipped entirely
+            EntityCensus census = Plex.get().getEntityCensus();
+            return census == null || census.hasAny(world, types);
+        }
+
+        @Override
+        public boolean includesChunk(World world, int chunkX, int chunkZ)
+        {
+            if (center == null)
+            {
+                return true;
+            }
+            // Distance from the center to the closest point of the chunk
+            double dx = Math.max(chunkX << 4, Math.min(center.getX(), (chunkX << 4) + 16)) - center.getX();
+            double dz = Math.max(chunkZ << 4, Math.min(center.getZ(), (chunkZ << 4) + 16)) - center.getZ();
+            return dx * dx + dz * dz <= radius * radius;
+        }
+
+        public boolean matches(Entity entity)
+        {
+            if (!types.contains(entity.getType()))
+            {
+                return false;
+            }
+            return center == null || entity.getLocation().distanceSquared(center) <= radius * radius;
+        }
+    }
+
+    /**
+     * The outcome of a finished wipe
+     *
+     * @param counts         The number of removed entities by type, only containing types that were removed
+     * @param total          The total number of removed entities
+     * @param chunks         The number of chunks visited
+     * @param ticks          The number of region ticks the wipe was spread over
+     * @param durationMillis The time from starting until finishing the wipe
+     */
+    public record Result(Map<EntityType, Integer> counts, int total, int chunks, int ticks, long durationMillis)
+    {
+    }
+}
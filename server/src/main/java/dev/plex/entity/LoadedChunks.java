@@ -0,0 +1,110 @@
+package dev.plex.entity;
+
+import dev.plex.Plex;
+import dev.plex.util.PlexUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The loaded chunks of every world, kept up to date from chunk load and unload events. On Folia a world's loaded
+ * chunks can't be listed from outside the regions that own them, so chunk walks take their chunks from here instead.
+ */
+public class LoadedChunks
+{
+    private final Map<UUID, Set<Long>> worlds = new ConcurrentHashMap<>();
+
+    public void add(World world, int chunkX, int chunkZ)
+    {
+        worlds.computeIfAbsent(world.getUID(), uid -> ConcurrentHashMap.newKeySet()).add(EntityCensus.chunkKey(chunkX, chunkZ));
+    }
+
+    public void remove(World world, int chunkX, int chunkZ)
+    {
+        Set<Long> chunks = worlds.get(world.getUID());
+        if (chunks != null)
+        {
+            chunks.remove(EntityCensus.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    public void removeWorld(World world)
+    {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Lists the chunks loaded in a world. A chunk may unload before it's used, so walks check each one again on its own
+     * region.
+     *
+     * @param world The world
+     * @return a copy of the world's loaded chunks
+     */
+    public List<ChunkWalk.ChunkPos> snapshot(World world)
+    {
+        Set<Long> chunks = worlds.get(world.getUID());
+        if (chunks == null)
+        {
+            return List.of();
+        }
+        List<ChunkWalk.ChunkPos> list = new ArrayList<>(chunks.size());
+        for (long key : chunks)
+        {
+            list.add(new ChunkWalk.ChunkPos(world.getUID(), (int) (key >> 32), (int) key));
+        }
+        return list;
+    }
+
+    /**
+     * Picks up the chunks that were already loaded before Plex enabled. Without Folia they're listed on the main
+     * thread. On Folia only the chunks around online players can be reached safely, each from the player's own region,
+     * and those are the chunks a running server keeps loaded.
+     */
+    public void seed()
+    {
+        if (!PlexUtils.isFolia())
+        {
+            Bukkit.getGlobalRegionScheduler().run(Plex.get(), task ->
+            {
+                for (World world : Bukkit.getWorlds())
+                {
+                    for (Chunk chunk : world.getLoadedChunks())
+                    {
+                        add(world, chunk.getX(), chunk.getZ());
+                    }
+                }
+            });
+            return;
+        }
+        for (Player player : Bukkit.getOnlinePlayers())
+        {
+            player.getScheduler().run(Plex.get(), task -> seedAround(player), null);
+        }
+    }
+
+    private void seedAround(Player player)
+    {
+        World world = player.getWorld();
+        int centerX = player.getLocation().getBlockX() >> 4;
+        int centerZ = player.getLocation().getBlockZ() >> 4;
+        int radius = player.getViewDistance();
+        for (int x = centerX - radius; x <= centerX + radius; x++)
+        {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++)
+            {
+                if (Bukkit.isOwnedByCurrentRegion(world, x, z) && world.isChunkLoaded(x, z))
+                {
+                    add(world, x, z);
+                }
+            }
+        }
+    }
+}
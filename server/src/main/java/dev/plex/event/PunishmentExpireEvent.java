@@ -0,0 +1,45 @@
+package dev.plex.event;
+
+import dev.plex.punishment.Punishment;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Event that is called with every timed punishment that expired in the same tick, before they are lifted
+ */
+@Getter
+public class PunishmentExpireEvent extends Event
+{
+    private static final HandlerList handlers = new HandlerList();
+
+    /**
+     * The punishments that expired
+     */
+    private final List<Punishment> punishments;
+
+    /**
+     * Creates a new event instance
+     *
+     * @param punishments The punishments that expired
+     */
+    public PunishmentExpireEvent(List<Punishment> punishments)
+    {
+        super(!Bukkit.isPrimaryThread());
+        this.punishments = punishments;
+    }
+
+    public static HandlerList getHandlerList()
+    {
+        return handlers;
+    }
+
+    @Override
+    public HandlerList getHandlers()
+    {
+        return handlers;
+    }
+}
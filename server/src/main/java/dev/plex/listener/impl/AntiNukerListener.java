@@ -1,44 +1,85 @@
 package dev.plex.listener.impl;
 
+import dev.plex.cache.DataUtils;
 import dev.plex.listener.PlexListener;
+import dev.plex.player.PlexPlayer;
+import dev.plex.punishment.Punishment;
+import dev.plex.punishment.PunishmentType;
+import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
-import dev.plex.services.impl.TimingService;
-import net.kyori.adventure.text.Component;
+import dev.plex.util.RateLimiter;
+import dev.plex.util.TimeUtils;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class AntiNukerListener extends PlexListener
 {
+    /**
+     * Players kicked for going over the block limits. Strikes outlive the kick, so they are pruned by age instead of
+     * on quit.
+     */
+    private final Map<UUID, Strikes> strikes = new ConcurrentHashMap<>();
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockPlace(BlockPlaceEvent event)
     {
-        TimingService.nukerCooldown.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-        if (getCount(event.getPlayer().getUniqueId()) > 200L)
+        if (!plugin.getRateLimiter().tryAcquire(RateLimiter.Action.BLOCK_PLACE, event.getPlayer().getUniqueId()))
         {
-            TimingService.strikes.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-            event.getPlayer().kick(PlexUtils.messageComponent("nukerKickMessage"));
             event.setCancelled(true);
+            strike(event.getPlayer());
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBreak(BlockBreakEvent event)
     {
-        TimingService.nukerCooldown.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-        if (getCount(event.getPlayer().getUniqueId()) > 200L)
+        if (!plugin.getRateLimiter().tryAcquire(RateLimiter.Action.BLOCK_BREAK, event.getPlayer().getUniqueId()))
         {
-            TimingService.strikes.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-            event.getPlayer().kick(PlexUtils.messageComponent("nukerKickMessage"));
             event.setCancelled(true);
+            strike(event.getPlayer());
+        }
+    }
+
+    private void strike(Player player)
+    {
+        long now = System.nanoTime();
+        long window = TimeUnit.MILLISECONDS.toNanos(plugin.config.getLong("ratelimits.nuker_strike_window", 600000L));
+        strikes.values().removeIf(strike -> now - strike.first() > window);
+        Strikes strike = strikes.merge(player.getUniqueId(), new Strikes(1, now), (previous, next) -> new Strikes(previous.count() + 1, previous.first()));
+        PlexLog.debug(player.getName() + " has " + strike.count() + " nuker strike(s)");
+
+        if (strike.count() >= plugin.config.getInt("ratelimits.nuker_strikes", 2))
+        {
+            strikes.remove(player.getUniqueId());
+            // Tempban for 5 minutes and reset strikes. This will probably stop people from actually trying to use a Nuker to grief.
+            issueBan(player);
         }
+        player.kick(PlexUtils.messageComponent("nukerKickMessage"));
+    }
+
+    private void issueBan(Player player)
+    {
+        Punishment punishment = new Punishment(player.getUniqueId(), null);
+        PlexPlayer plexPlayer = DataUtils.getPlayer(player.getUniqueId());
+        punishment.setType(PunishmentType.TEMPBAN);
+        punishment.setReason("You are temporarily banned for five minutes for using a Nuker.");
+        punishment.setPunishedUsername(player.getName());
+        punishment.setIp(player.getAddress().getAddress().getHostAddress());
+        punishment.setEndDate(TimeUtils.createDate("5m"));
+        punishment.setCustomTime(false);
+        punishment.setActive(true);
+        plugin.getPunishmentManager().punish(plexPlayer, punishment);
     }
 
-    public long getCount(UUID uuid)
+    private record Strikes(int count, long first)
     {
-        return TimingService.nukerCooldown.getOrDefault(uuid, 1L);
     }
 }
@@ -2,23 +2,19 @@ package dev.plex.listener.impl;
 
 import dev.plex.listener.PlexListener;
 import dev.plex.util.PlexUtils;
-import dev.plex.services.impl.TimingService;
+import dev.plex.util.RateLimiter;
 import io.papermc.paper.event.player.AsyncChatEvent;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
-
-import java.util.UUID;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 public class AntiSpamListener extends PlexListener
 {
     @EventHandler
     public void onChat(AsyncChatEvent event)
     {
-        TimingService.spamCooldown.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-        if (getCount(event.getPlayer().getUniqueId()) > 8L)
+        if (!plugin.getRateLimiter().tryAcquire(RateLimiter.Action.CHAT, event.getPlayer().getUniqueId()))
         {
             event.getPlayer().sendMessage(PlexUtils.messageComponent("antiSpamMessage"));
             event.setCancelled(true);
@@ -28,16 +24,16 @@ public class AntiSpamListener extends PlexListener
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event)
     {
-        TimingService.spamCooldown.merge(event.getPlayer().getUniqueId(), 1L, Long::sum);
-        if (getCount(event.getPlayer().getUniqueId()) > 8L)
+        if (!plugin.getRateLimiter().tryAcquire(RateLimiter.Action.COMMAND, event.getPlayer().getUniqueId()))
         {
             event.getPlayer().sendMessage(PlexUtils.messageComponent("antiSpamMessage"));
             event.setCancelled(true);
         }
     }
 
-    public long getCount(UUID uuid)
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event)
     {
-        return TimingService.spamCooldown.getOrDefault(uuid, 1L);
+        plugin.getRateLimiter().remove(event.getPlayer().getUniqueId());
     }
 }
@@ -1,12 +1,9 @@
 package dev.plex.listener.impl;
 
 import dev.plex.Plex;
-import dev.plex.cache.DataUtils;
 import dev.plex.listener.PlexListener;
-import dev.plex.player.PlexPlayer;
 import dev.plex.punishment.Punishment;
 import dev.plex.punishment.PunishmentManager;
-import dev.plex.punishment.PunishmentType;
 import dev.plex.util.PlexLog;
 import it.unimi.dsi.fastutil.Pair;
 import org.bukkit.Bukkit;
@@ -43,19 +40,17 @@ public class BanListener extends PlexListener
             return;
         }
 
-        if (plugin.getPunishmentManager().isBanned(event.getUniqueId()))
+        Punishment ban = plugin.getPunishmentManager().findActiveBan(event.getUniqueId());
+        if (ban != null)
         {
             if (Plex.get().getPermissions() != null && Plex.get().getPermissions().playerHas(null, Bukkit.getOfflinePlayer(event.getUniqueId()), "plex.ban.bypass"))
             {
                 return;
             }
-            PlexPlayer player = DataUtils.getPlayer(event.getUniqueId());
-            player.getPunishments().stream().filter(punishment -> (punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN) && punishment.isActive()).findFirst().ifPresent(punishment ->
-                    event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED,
-                            Punishment.generateBanMessage(punishment)));
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, Punishment.generateBanMessage(ban));
             return;
         }
-        Punishment ipBannedPunishment = plugin.getPunishmentManager().getBanByIP(event.getAddress().getHostAddress());
+        Punishment ipBannedPunishment = plugin.getPunishmentManager().findBanByIP(event.getAddress().getHostAddress());
         if (ipBannedPunishment != null)
         {
             // Don't check if the other account that's banned has bypass abilities, check if current has only
@@ -17,31 +17,12 @@ import java.util.List;
 
 public class BlockListener extends PlexListener
 {
-    private static final List<Material> blockedBlocks = new ArrayList<>();
     private static final List<Material> SIGNS = Arrays.stream(Material.values()).filter((mat) -> mat.name().endsWith("_SIGN")).toList();
-    private static List<String> cachedBlockedBlocksConfig = null;
     public List<String> blockedPlayers = new ArrayList<>();
 
     @EventHandler(priority = EventPriority.LOW)
     public void onBlockPlace(BlockPlaceEvent event)
     {
-        List<String> blockedBlocksConfig = plugin.config.getStringList("blocked_blocks");
-        if (blockedBlocksConfig != cachedBlockedBlocksConfig)
-        {
-            blockedBlocks.clear();
-            cachedBlockedBlocksConfig = blockedBlocksConfig;
-            for (String block : blockedBlocksConfig)
-            {
-                try
-                {
-                    blockedBlocks.add(Material.valueOf(block.toUpperCase()));
-                }
-                catch (IllegalArgumentException ignored)
-                {
-                }
-            }
-        }
-
         Block block = event.getBlock();
 
         if (blockedPlayers.contains(event.getPlayer().getName()))
@@ -50,7 +31,7 @@ public class BlockListener extends PlexListener
             return;
         }
 
-        if (blockedBlocks.contains(block.getType()))
+        if (plugin.getPolicy().isBlockedBlock(block.getType()))
         {
             block.setType(Material.CAKE);
             PlexUtils.disabledEffect(event.getPlayer(), block.getLocation().add(0.5, 0.5, 0.5));
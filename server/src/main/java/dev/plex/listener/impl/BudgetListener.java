@@ -0,0 +1,75 @@
+package dev.plex.listener.impl;
+
+import dev.plex.config.Policy;
+import dev.plex.entity.ChunkWalk;
+import dev.plex.listener.PlexListener;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.TNTPrimed;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.entity.ExplosionPrimeEvent;
+import org.bukkit.persistence.PersistentDataType;
+
+public class BudgetListener extends PlexListener
+{
+    private final NamespacedKey defersKey = new NamespacedKey(plugin, "explosion_defers");
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event)
+    {
+        if (!event.getBlock().isLiquid())
+        {
+            return;
+        }
+        Block to = event.getToBlock();
+        if (!plugin.getFluidBudget().tryAcquire(ChunkWalk.ChunkPos.of(to.getWorld(), to.getX() >> 4, to.getZ() >> 4), plugin.getPolicy().getFluidChunkLimit()))
+        {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onExplosionPrime(ExplosionPrimeEvent event)
+    {
+        Entity entity = event.getEntity();
+        Policy.ExplosionRules rules = plugin.getPolicy().getExplosions();
+        if (plugin.getExplosionBudget().tryAcquire(entity.getWorld().getUID(), rules.perTick()))
+        {
+            return;
+        }
+        event.setCancelled(true);
+        if (!(entity instanceof TNTPrimed tnt) || !rules.defer())
+        {
+            return;
+        }
+        int defers = tnt.getPersistentDataContainer().getOrDefault(defersKey, PersistentDataType.INTEGER, 0);
+        if (defers >= rules.maxDefers())
+        {
+            return;
+        }
+        // The fused TNT is already gone by the time it primes its explosion, so a fresh one takes its place
+        Location location = tnt.getLocation();
+        location.getWorld().spawn(location, TNTPrimed.class, deferred ->
+        {
+            deferred.setFuseTicks(rules.deferTicks());
+            deferred.setSource(tnt.getSource());
+            deferred.setYield(event.getRadius());
+            deferred.setIsIncendiary(event.getFire());
+            deferred.getPersistentDataContainer().set(defersKey, PersistentDataType.INTEGER, defers + 1);
+        });
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event)
+    {
+        if (!plugin.getExplosionBudget().tryAcquire(event.getBlock().getWorld().getUID(), plugin.getPolicy().getExplosions().perTick()))
+        {
+            event.setCancelled(true);
+        }
+    }
+}
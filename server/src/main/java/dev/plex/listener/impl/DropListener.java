@@ -9,7 +9,7 @@ public class DropListener extends PlexListener
     @EventHandler
     public void onPlayerDropItem(PlayerDropItemEvent event)
     {
-        if (!plugin.toggles.getBoolean("drops"))
+        if (!plugin.getToggleState().isDrops())
         {
             event.setCancelled(true);
         }
@@ -0,0 +1,42 @@
+package dev.plex.listener.impl;
+
+import dev.plex.config.Policy;
+import dev.plex.entity.EntityCategory;
+import dev.plex.entity.EntityCensus;
+import dev.plex.listener.PlexListener;
+import dev.plex.util.PlexUtils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.entity.EntitySpawnEvent;
+
+public class EntityCapListener extends PlexListener
+{
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event)
+    {
+        Policy policy = plugin.getPolicy();
+        if (!policy.isEntityCapsEnabled())
+        {
+            return;
+        }
+        EntityCategory category = EntityCategory.of(event.getEntityType());
+        if (category == null)
+        {
+            return;
+        }
+
+        Location location = event.getLocation();
+        World world = location.getWorld();
+        EntityCensus census = plugin.getEntityCensus();
+        int chunkCap = policy.getChunkCap(category);
+        int worldCap = policy.getWorldCap(category);
+        if ((chunkCap > 0 && census.countInChunk(world, location.getBlockX() >> 4, location.getBlockZ() >> 4, category) >= chunkCap)
+                || (worldCap > 0 && census.count(world, category) >= worldCap))
+        {
+            event.setCancelled(true);
+            PlexUtils.disabledEffectNearby(location);
+        }
+    }
+}
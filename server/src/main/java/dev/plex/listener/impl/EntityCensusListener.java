@@ -0,0 +1,36 @@
+package dev.plex.listener.impl;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import dev.plex.listener.PlexListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the entity census up to date. Entities are added and removed from a world whenever they spawn, die or get
+ * removed, and whenever the chunk holding them loads or unloads, so these two events cover all of it.
+ */
+public class EntityCensusListener extends PlexListener
+{
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event)
+    {
+        plugin.getEntityCensus().add(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event)
+    {
+        plugin.getEntityCensus().remove(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event)
+    {
+        if (!event.isCancelled())
+        {
+            plugin.getEntityCensus().removeWorld(event.getWorld());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package dev.plex.listener.impl;
+
+import dev.plex.listener.PlexListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the set of loaded chunks that chunk walks start from up to date
+ */
+public class LoadedChunksListener extends PlexListener
+{
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event)
+    {
+        plugin.getLoadedChunks().add(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event)
+    {
+        plugin.getLoadedChunks().remove(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event)
+    {
+        if (!event.isCancelled())
+        {
+            plugin.getLoadedChunks().removeWorld(event.getWorld());
+        }
+    }
+}
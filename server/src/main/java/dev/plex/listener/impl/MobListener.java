@@ -1,8 +1,11 @@
 package dev.plex.listener.impl;
 
+import dev.plex.config.Policy;
+import dev.plex.entity.EntityCensus;
 import dev.plex.listener.PlexListener;
 import dev.plex.util.BlockUtils;
 import dev.plex.util.PlexUtils;
+import dev.plex.util.RateLimit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -10,7 +13,6 @@ import org.bukkit.block.data.Directional;
 import org.bukkit.entity.Ageable;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
-import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -22,13 +24,32 @@ import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
 
 public class MobListener extends PlexListener
 {
-    private static final List<Material> SPAWN_EGGS = Arrays.stream(Material.values()).filter((mat) -> mat.name().endsWith("_SPAWN_EGG")).toList();
+    /**
+     * Every spawn egg and the entity it spawns. Eggs for entities that don't exist map to null but are still blocked.
+     */
+    private static final Map<Material, EntityType> SPAWN_EGGS = new EnumMap<>(Material.class);
+
+    static
+    {
+        for (Material material : Material.values())
+        {
+            if (material.name().endsWith("_SPAWN_EGG"))
+            {
+                SPAWN_EGGS.put(material, spawnEggToEntityType(material));
+            }
+        }
+    }
+
+    /**
+     * The dispenser limits built from the current policy, rebuilt whenever the config is reloaded
+     */
+    private volatile DispenserLimits dispenserLimits;
 
     private static EntityType spawnEggToEntityType(Material mat)
     {
@@ -63,12 +84,10 @@ public class MobListener extends PlexListener
             return;
         }
 
-        if (plugin.config.getStringList("blocked_entities").stream().anyMatch(type -> type.equalsIgnoreCase(event.getEntityType().name())))
+        if (plugin.getPolicy().isBlockedEntity(event.getEntityType()))
         {
             event.setCancelled(true);
-            Location location = event.getLocation();
-            Collection<Player> coll = location.getNearbyEntitiesByType(Player.class, 10);
-            PlexUtils.disabledEffectMultiple(coll.toArray(new Player[coll.size()]), location); // dont let intellij auto correct toArray to an empty array (for efficiency)
+            PlexUtils.disabledEffectNearby(event.getLocation());
         }
     }
 
@@ -77,11 +96,17 @@ public class MobListener extends PlexListener
     {
         ItemStack item = event.getItem();
         Material itemType = item.getType();
-        if (SPAWN_EGGS.contains(itemType))
+        if (SPAWN_EGGS.containsKey(itemType))
         {
             Block block = event.getBlock();
             Location blockLoc = BlockUtils.relative(block.getLocation(), ((Directional) block.getBlockData()).getFacing()).add(.5, 0, .5);
-            EntityType eggType = spawnEggToEntityType(itemType);
+            EntityType eggType = SPAWN_EGGS.get(itemType);
+            if (eggType != null && !tryDispense(block))
+            {
+                PlexUtils.disabledEffectNearby(blockLoc);
+                event.setCancelled(true);
+                return;
+            }
             if (eggType != null)
             {
                 blockLoc.getWorld().spawnEntity(blockLoc, eggType);
@@ -90,6 +115,39 @@ public class MobListener extends PlexListener
         }
     }
 
+    /**
+     * Takes a token from both the chunk and the dispenser, so a clock spread over many dispensers is still limited by its
+     * chunk. The chunk's token is given back if the dispenser itself is over its limit.
+     */
+    private boolean tryDispense(Block block)
+    {
+        DispenserLimits limits = dispenserLimits();
+        UUID world = block.getWorld().getUID();
+        ChunkKey chunk = new ChunkKey(world, EntityCensus.chunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (!limits.chunk().tryAcquire(chunk))
+        {
+            return false;
+        }
+        if (!limits.block().tryAcquire(new BlockKey(world, block.getX(), block.getY(), block.getZ())))
+        {
+            limits.chunk().refund(chunk);
+            return false;
+        }
+        return true;
+    }
+
+    private DispenserLimits dispenserLimits()
+    {
+        Policy.DispenserRules rules = plugin.getPolicy().getDispensers();
+        DispenserLimits current = this.dispenserLimits;
+        if (current == null || current.rules() != rules)
+        {
+            current = new DispenserLimits(rules, RateLimit.perSecond(rules.blockRate(), rules.blockBurst()), RateLimit.perSecond(rules.chunkRate(), rules.chunkBurst()));
+            this.dispenserLimits = current;
+        }
+        return current;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityClick(PlayerInteractEntityEvent event)
     {
@@ -97,9 +155,9 @@ public class MobListener extends PlexListener
         Material handItem = event.getPlayer().getEquipment().getItem(event.getHand()).getType();
         if (event.getRightClicked() instanceof Ageable entity)
         {
-            if (SPAWN_EGGS.contains(handItem))
+            if (SPAWN_EGGS.containsKey(handItem))
             {
-                EntityType eggType = spawnEggToEntityType(handItem);
+                EntityType eggType = SPAWN_EGGS.get(handItem);
                 if (eggType != null)
                 {
                     Entity spawned = entity.getWorld().spawnEntity(entity.getLocation(), eggType);
@@ -119,7 +177,7 @@ public class MobListener extends PlexListener
         if (event.useInteractedBlock() == Event.Result.DENY) return;
         if (event.getAction() == Action.RIGHT_CLICK_AIR || event.getAction() == Action.RIGHT_CLICK_BLOCK)
         {
-            if (SPAWN_EGGS.contains(event.getMaterial()))
+            if (SPAWN_EGGS.containsKey(event.getMaterial()))
             {
                 event.setCancelled(true);
                 Block clickedBlock = event.getClickedBlock();
@@ -127,7 +185,7 @@ public class MobListener extends PlexListener
                 {
                     return;
                 }
-                EntityType eggType = spawnEggToEntityType(event.getMaterial());
+                EntityType eggType = SPAWN_EGGS.get(event.getMaterial());
                 if (eggType != null)
                 {
                     clickedBlock.getWorld().spawnEntity(clickedBlock.getLocation().add(event.getBlockFace().getDirection().multiply(0.8)).add(0.5, 0.5, 0.5), eggType);
@@ -135,4 +193,16 @@ public class MobListener extends PlexListener
             }
         }
     }
+
+    private record BlockKey(UUID world, int x, int y, int z)
+    {
+    }
+
+    private record ChunkKey(UUID world, long chunk)
+    {
+    }
+
+    private record DispenserLimits(Policy.DispenserRules rules, RateLimit<BlockKey> block, RateLimit<ChunkKey> chunk)
+    {
+    }
 }
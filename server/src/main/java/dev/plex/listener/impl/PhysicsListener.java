@@ -0,0 +1,64 @@
+package dev.plex.listener.impl;
+
+import dev.plex.entity.ChunkWalk;
+import dev.plex.listener.PlexListener;
+import dev.plex.throttle.ActivityBudget;
+import dev.plex.util.PlexLog;
+import dev.plex.util.PlexUtils;
+import org.bukkit.block.Block;
+import org.bukkit.entity.FallingBlock;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+
+public class PhysicsListener extends PlexListener
+{
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockPhysics(BlockPhysicsEvent event)
+    {
+        if (!plugin.getToggleState().isPhysics())
+        {
+            event.setCancelled(true);
+            return;
+        }
+        if (!acquire(plugin.getPhysicsBudget(), event.getBlock(), plugin.getPolicy().getPhysics().perChunk(), "block physics", "physicsChunkThrottled"))
+        {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockFall(EntityChangeBlockEvent event)
+    {
+        // Only blocks that start falling, a falling block landing is let through so it doesn't vanish mid air
+        if (!(event.getEntity() instanceof FallingBlock falling) || event.getBlock().getType() != falling.getBlockData().getMaterial())
+        {
+            return;
+        }
+        if (!plugin.getToggleState().isPhysics())
+        {
+            event.setCancelled(true);
+            return;
+        }
+        if (!acquire(plugin.getFallingBlockBudget(), event.getBlock(), plugin.getPolicy().getPhysics().fallingBlocks(), "falling blocks", "fallingBlocksThrottled"))
+        {
+            event.setCancelled(true);
+        }
+    }
+
+    private boolean acquire(ActivityBudget<ChunkWalk.ChunkPos> budget, Block block, int limit, String what, String message)
+    {
+        ChunkWalk.ChunkPos chunk = ChunkWalk.ChunkPos.of(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+        if (budget.tryAcquire(chunk, limit))
+        {
+            return true;
+        }
+        if (budget.getDenied(chunk) == 1)
+        {
+            PlexLog.log("Throttling {0} in chunk {1}, {2} in {3}", what, chunk.x(), chunk.z(), chunk.worldName());
+            PlexUtils.broadcastToAdmins(PlexUtils.messageComponent(message, chunk.worldName(), chunk.x(), chunk.z(), limit), "plex.physics.notify");
+        }
+        return false;
+    }
+}
@@ -1,6 +1,8 @@
 package dev.plex.listener.impl;
 
+import com.google.common.collect.Lists;
 import dev.plex.cache.DataUtils;
+import dev.plex.cache.PreLoginCache;
 import dev.plex.listener.PlexListener;
 import dev.plex.meta.PlayerMeta;
 import dev.plex.player.PlexPlayer;
@@ -16,11 +18,52 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 public class PlayerListener extends PlexListener
 {
+    // loading a player's data off the main thread before they join
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerPreLoad(AsyncPlayerPreLoginEvent event)
+    {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+        {
+            return;
+        }
+        boolean newPlayer = !DataUtils.hasPlayedBefore(event.getUniqueId());
+        if (!newPlayer)
+        {
+            plugin.getSqlPlayerData().touchIp(event.getUniqueId(), event.getAddress().getHostAddress().trim());
+        }
+        PlexPlayer plexPlayer = newPlayer ? new PlexPlayer(event.getUniqueId()) : DataUtils.getPlayer(event.getUniqueId());
+        if (plexPlayer != null)
+        {
+            plugin.getPreLoginCache().stage(plexPlayer, newPlayer);
+        }
+    }
+
+    // dropping staged data if another plugin denied the login
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLoadDenied(AsyncPlayerPreLoginEvent event)
+    {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+        {
+            plugin.getPreLoginCache().invalidate(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLoginDenied(PlayerLoginEvent event)
+    {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+        {
+            plugin.getPreLoginCache().invalidate(event.getPlayer().getUniqueId());
+        }
+    }
+
     // setting up a player's data
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerSetup(PlayerJoinEvent event)
@@ -28,17 +71,20 @@ public class PlayerListener extends PlexListener
         Player player = event.getPlayer();
         PlexPlayer plexPlayer;
 
-        if (!DataUtils.hasPlayedBefore(player.getUniqueId()))
+        PreLoginCache.Entry staged = plugin.getPreLoginCache().take(player.getUniqueId());
+        boolean newPlayer = staged != null ? staged.newPlayer() : !DataUtils.hasPlayedBefore(player.getUniqueId());
+
+        if (newPlayer)
         {
             PlexLog.log("A player with this name has not joined the server before, creating new entry.");
-            plexPlayer = new PlexPlayer(player.getUniqueId()); // it doesn't! okay so now create the object
+            plexPlayer = staged != null ? staged.plexPlayer() : new PlexPlayer(player.getUniqueId()); // it doesn't! okay so now create the object
             plexPlayer.setName(player.getName()); // set the name of the player
-            plexPlayer.setIps(List.of(player.getAddress().getAddress().getHostAddress().trim())); // set the arraylist of ips
+            plexPlayer.setIps(Lists.newArrayList(player.getAddress().getAddress().getHostAddress().trim())); // set the arraylist of ips
             DataUtils.insert(plexPlayer); // insert data in some wack db
         }
         else
         {
-            plexPlayer = DataUtils.getPlayer(player.getUniqueId());
+            plexPlayer = staged != null ? staged.plexPlayer() : DataUtils.getPlayer(player.getUniqueId());
             List<String> ips = plexPlayer.getIps();
             String currentIP = player.getAddress().getAddress().getHostAddress().trim();
             if (!ips.contains(currentIP))
@@ -55,7 +101,7 @@ public class PlayerListener extends PlexListener
                 DataUtils.update(plexPlayer);
             }
         }
-        plugin.getPlayerCache().getPlexPlayerMap().put(player.getUniqueId(), plexPlayer);
+        plugin.getPlayerCache().put(plexPlayer);
         if (plexPlayer.isLockedUp())
         {
             player.openInventory(player.getInventory());
@@ -84,7 +130,7 @@ public class PlayerListener extends PlexListener
     {
         PlexPlayer plexPlayer = plugin.getPlayerCache().getPlexPlayerMap().get(event.getPlayer().getUniqueId()); //get the player because it's literally impossible for them to not have an object
         DataUtils.update(plexPlayer);
-        plugin.getPlayerCache().getPlexPlayerMap().remove(event.getPlayer().getUniqueId()); //remove them from cache
+        plugin.getPlayerCache().remove(event.getPlayer().getUniqueId()); //remove them from cache
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -0,0 +1,74 @@
+package dev.plex.listener.impl;
+
+import dev.plex.config.Policy;
+import dev.plex.listener.PlexListener;
+import dev.plex.throttle.RedstoneMonitor;
+import dev.plex.util.PlexLog;
+import dev.plex.util.PlexUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockRedstoneEvent;
+
+public class RedstoneListener extends PlexListener
+{
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockRedstone(BlockRedstoneEvent event)
+    {
+        if (event.getOldCurrent() == event.getNewCurrent())
+        {
+            return;
+        }
+        Policy.RedstoneRules rules = plugin.getPolicy().getRedstone();
+        Block block = event.getBlock();
+        RedstoneMonitor.Activity activity = plugin.getRedstoneMonitor().record(block, rules.windowMillis());
+
+        // A busy chunk has its redstone cut as a whole, no matter how the changes are spread over its blocks
+        if (rules.chunkLimit() > 0 && activity.chunk() > rules.chunkLimit())
+        {
+            if (activity.chunk() == rules.chunkLimit() + 1)
+            {
+                notifyStaff("redstoneChunkThrottled", block, activity.chunk(), rules.windowMillis());
+            }
+            event.setNewCurrent(0);
+            return;
+        }
+
+        if (rules.blockLimit() <= 0 || activity.block() <= rules.blockLimit())
+        {
+            return;
+        }
+        if (activity.block() == rules.blockLimit() + 1)
+        {
+            notifyStaff(rules.action() == Policy.RedstoneAction.BREAK ? "redstoneClockBroken" : "redstoneClockDetected", block, activity.block(), rules.windowMillis());
+        }
+        switch (rules.action())
+        {
+            case THROTTLE -> event.setNewCurrent(0);
+            case BREAK ->
+            {
+                event.setNewCurrent(0);
+                Material type = block.getType();
+                // The block can't be changed while its current is being updated, so it is broken right after
+                Bukkit.getRegionScheduler().run(plugin, block.getLocation(), task ->
+                {
+                    if (block.getType() == type)
+                    {
+                        block.breakNaturally();
+                    }
+                });
+            }
+            default ->
+            {
+            }
+        }
+    }
+
+    private void notifyStaff(String message, Block block, int changes, long windowMillis)
+    {
+        PlexLog.log("Redstone at {0} {1}, {2}, {3} changed {4} times in {5} seconds", block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), changes, windowMillis / 1000);
+        PlexUtils.broadcastToAdmins(PlexUtils.messageComponent(message, block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), changes, windowMillis / 1000), "plex.redstone.notify");
+    }
+}
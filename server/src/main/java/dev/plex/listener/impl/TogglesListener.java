@@ -4,8 +4,6 @@ import dev.plex.Plex;
 import dev.plex.listener.PlexListener;
 import dev.plex.util.PlexUtils;
 import io.papermc.paper.event.player.AsyncChatEvent;
-import org.bukkit.Bukkit;
-import org.bukkit.command.Command;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.block.BlockExplodeEvent;
@@ -16,15 +14,12 @@ import org.bukkit.event.entity.ExplosionPrimeEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 
-import java.util.List;
-
 public class TogglesListener extends PlexListener
 {
-    List<String> commands = plugin.commands.getStringList("block_on_mute");
     @EventHandler
     public void onExplosionPrime(ExplosionPrimeEvent event)
     {
-        if (!plugin.toggles.getBoolean("explosions"))
+        if (!plugin.getToggleState().isExplosions())
         {
             event.getEntity().remove();
             event.setCancelled(true);
@@ -33,7 +28,7 @@ public class TogglesListener extends PlexListener
 
     @EventHandler
     public void onBlockExplode(BlockExplodeEvent event) {
-        if (!plugin.toggles.getBoolean("explosions"))
+        if (!plugin.getToggleState().isExplosions())
         {
             event.getBlock().breakNaturally();
             event.setCancelled(true);
@@ -43,7 +38,7 @@ public class TogglesListener extends PlexListener
     @EventHandler
     public void onEntityExplode(EntityExplodeEvent event)
     {
-        if (!plugin.toggles.getBoolean("explosions"))
+        if (!plugin.getToggleState().isExplosions())
         {
             event.getEntity().remove();
             event.setCancelled(true);
@@ -53,7 +48,7 @@ public class TogglesListener extends PlexListener
     @EventHandler
     public void onFluidSpread(BlockFromToEvent event)
     {
-        if (!plugin.toggles.getBoolean("fluidspread"))
+        if (!plugin.getToggleState().isFluidSpread())
         {
             event.setCancelled(true);
         }
@@ -62,7 +57,7 @@ public class TogglesListener extends PlexListener
     @EventHandler
     public void onFluidSpread(PlayerDropItemEvent event)
     {
-        if (!plugin.toggles.getBoolean("drops"))
+        if (!plugin.getToggleState().isDrops())
         {
             event.setCancelled(true);
         }
@@ -72,7 +67,7 @@ public class TogglesListener extends PlexListener
     public void onChat(AsyncChatEvent event)
     {
         Player player = event.getPlayer();
-        if (!plugin.toggles.getBoolean("chat") && !Plex.get().getPermissions().has(player, "plex.mute.bypass"))
+        if (!plugin.getToggleState().isChat() && !Plex.get().getPermissions().has(player, "plex.mute.bypass"))
         {
             event.getPlayer().sendMessage(PlexUtils.messageComponent("chatIsOff"));
             event.setCancelled(true);
@@ -83,31 +78,16 @@ public class TogglesListener extends PlexListener
     public void onCommand(PlayerCommandPreprocessEvent event)
     {
         Player player = event.getPlayer();
-        if (!plugin.toggles.getBoolean("chat") && !Plex.get().getPermissions().has(player, "plex.mute.bypass"))
+        if (!plugin.getToggleState().isChat() && !Plex.get().getPermissions().has(player, "plex.mute.bypass"))
         {
             String message = event.getMessage();
             message = message.replaceAll("\\s.*", "").replaceFirst("/", "");
-            if (commands.contains(message.toLowerCase()))
+            if (plugin.getPolicy().isBlockedOnMute(message))
             {
                 event.getPlayer().sendMessage(PlexUtils.messageComponent("chatIsOff"));
                 event.setCancelled(true);
-                return;
-            }
-
-            for (String command : commands)
-            {
-                Command cmd = Bukkit.getCommandMap().getCommand(command);
-                if (cmd == null) {
-                    return;
-                }
-                if (cmd.getAliases().contains(message.toLowerCase())) {
-                    event.getPlayer().sendMessage(PlexUtils.messageComponent("chatIsOff"));
-                    event.setCancelled(true);
-                    return;
-                }
             }
         }
-
     }
 
     /* I have no idea if this is the best way to do this
@@ -118,7 +98,7 @@ public class TogglesListener extends PlexListener
     @EventHandler
     public void onBlockRedstone(BlockRedstoneEvent event)
     {
-        if (!plugin.toggles.getBoolean("redstone"))
+        if (!plugin.getToggleState().isRedstone())
         {
             event.setNewCurrent(0);
         }
@@ -1,9 +1,8 @@
 package dev.plex.listener.impl;
 
+import dev.plex.config.Policy;
 import dev.plex.listener.PlexListener;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.block.data.Openable;
@@ -112,8 +111,11 @@ public class WorldListener extends PlexListener
             boolean isFaweCommand = command instanceof PluginIdentifiableCommand && ((PluginIdentifiableCommand) command).getPlugin().equals(Bukkit.getPluginManager().getPlugin("FastAsyncWorldEdit"));
             if (isWeCommand || isFaweCommand || EDIT_COMMANDS.contains(message.toLowerCase()))
             {
-                String noEdit = plugin.config.getString("worlds." + event.getPlayer().getWorld().getName().toLowerCase() + ".modification.message");
-                event.getPlayer().sendMessage(MiniMessage.miniMessage().deserialize(noEdit));
+                Component noEdit = plugin.getPolicy().getWorld(event.getPlayer().getWorld()).modifyMessage();
+                if (noEdit != null)
+                {
+                    event.getPlayer().sendMessage(noEdit);
+                }
                 event.setCancelled(true);
             }
         }
@@ -137,24 +139,19 @@ public class WorldListener extends PlexListener
      */
     private boolean canModifyWorld(Player player, boolean showMessage)
     {
-        World world = player.getWorld();
-        String permission = plugin.config.getString("worlds." + world.getName().toLowerCase() + ".modification.permission");
-        if (permission == null)
+        Policy.WorldRules rules = plugin.getPolicy().getWorld(player.getWorld());
+        if (rules.modifyPermission() == null)
         {
             return true;
         }
-        if (player.hasPermission(permission))
+        if (player.hasPermission(rules.modifyPermission()))
         {
             return true;
         }
 
-        if (showMessage)
+        if (showMessage && rules.modifyMessage() != null)
         {
-            String noEdit = plugin.config.getString("worlds." + world.getName().toLowerCase() + ".modification.message");
-            if (noEdit != null)
-            {
-                player.sendMessage(MiniMessage.miniMessage().deserialize(noEdit));
-            }
+            player.sendMessage(rules.modifyMessage());
         }
         return false;
     }
@@ -167,20 +164,19 @@ public class WorldListener extends PlexListener
      */
     private boolean canEnterWorld(Player player, World destination)
     {
-        String permission = plugin.config.getString("worlds." + destination.getName().toLowerCase() + ".entry.permission");
-        if (permission == null)
+        Policy.WorldRules rules = plugin.getPolicy().getWorld(destination);
+        if (rules.entryPermission() == null)
         {
             return true;
         }
-        if (player.hasPermission(permission))
+        if (player.hasPermission(rules.entryPermission()))
         {
             return true;
         }
 
-        String noEntry = plugin.config.getString("worlds." + destination.getName().toLowerCase() + ".entry.message");
-        if (noEntry != null)
+        if (rules.entryMessage() != null)
         {
-            player.sendMessage(MiniMessage.miniMessage().deserialize(noEntry));
+            player.sendMessage(rules.entryMessage());
         }
         return false;
     }
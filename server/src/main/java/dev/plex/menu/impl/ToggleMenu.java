@@ -25,6 +25,31 @@ public class ToggleMenu extends AbstractMenu
         resetDropsItem(this.inventory());
         resetRedstoneItem(this.inventory());
         resetChatItem(this.inventory());
+        resetPhysicsItem(this.inventory());
+    }
+
+    /**
+     * Opens the menu and keeps the toggles and budget usage on it up to date for as long as the player has it open
+     */
+    @Override
+    public void open(Player player)
+    {
+        super.open(player);
+        player.getScheduler().runAtFixedRate(plugin, task ->
+        {
+            if (!this.inventory().equals(player.getOpenInventory().getTopInventory()))
+            {
+                task.cancel();
+                return;
+            }
+            // Everything is redrawn as lag protection can hold any toggle off while the menu is open
+            resetExplosionItem(this.inventory());
+            resetFluidspreadItem(this.inventory());
+            resetDropsItem(this.inventory());
+            resetRedstoneItem(this.inventory());
+            resetChatItem(this.inventory());
+            resetPhysicsItem(this.inventory());
+        }, null, 20L, 20L);
     }
 
     private void resetExplosionItem(Inventory inventory)
@@ -32,7 +57,10 @@ public class ToggleMenu extends AbstractMenu
         ItemStack explosions = new ItemStack(Material.TNT);
         ItemMeta explosionsItemMeta = explosions.getItemMeta();
         explosionsItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Toggle explosions"));
-        explosionsItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Explosions are " + (plugin.toggles.getBoolean("explosions") ? "<red>enabled" : "<green>disabled"))));
+        int perTick = plugin.getPolicy().getExplosions().perTick();
+        explosionsItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Explosions are " + state("explosions", "<red>enabled", "<green>disabled")),
+                PlexUtils.mmDeserialize("<!italic><gray>Budget: " + (perTick > 0 ? "<gold>" + perTick + " <gray>per world per tick" : "<gold>unlimited")),
+                PlexUtils.mmDeserialize("<!italic><gray>Last second: <gold>" + plugin.getExplosionBudget().getAllowed() + " <gray>exploded, <gold>" + plugin.getExplosionBudget().getDenied() + " <gray>held back")));
         explosions.setItemMeta(explosionsItemMeta);
         inventory.setItem(0, explosions);
     }
@@ -42,7 +70,10 @@ public class ToggleMenu extends AbstractMenu
         ItemStack water = new ItemStack(Material.WATER_BUCKET);
         ItemMeta waterItemMeta = water.getItemMeta();
         waterItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Toggle fluid spread"));
-        waterItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Fluid spread is " + (plugin.toggles.getBoolean("fluidspread") ? "<green>enabled" : "<red>disabled"))));
+        int perChunk = plugin.getPolicy().getFluidChunkLimit();
+        waterItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Fluid spread is " + state("fluidspread", "<green>enabled", "<red>disabled")),
+                PlexUtils.mmDeserialize("<!italic><gray>Budget: " + (perChunk > 0 ? "<gold>" + perChunk + " <gray>flows per chunk per second" : "<gold>unlimited")),
+                PlexUtils.mmDeserialize("<!italic><gray>Last second: <gold>" + plugin.getFluidBudget().getAllowed() + " <gray>flowed, <gold>" + plugin.getFluidBudget().getDenied() + " <gray>held back")));
         water.setItemMeta(waterItemMeta);
         inventory.setItem(1, water);
     }
@@ -52,7 +83,7 @@ public class ToggleMenu extends AbstractMenu
         ItemStack feather = new ItemStack(Material.FEATHER);
         ItemMeta featherItemMeta = feather.getItemMeta();
         featherItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Toggle drops"));
-        featherItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Drops are " + (plugin.toggles.getBoolean("drops") ? "<green>enabled" : "<red>disabled"))));
+        featherItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Drops are " + state("drops", "<green>enabled", "<red>disabled"))));
         feather.setItemMeta(featherItemMeta);
         inventory.setItem(2, feather);
     }
@@ -62,7 +93,7 @@ public class ToggleMenu extends AbstractMenu
         ItemStack redstone = new ItemStack(Material.REDSTONE);
         ItemMeta redstoneItemMeta = redstone.getItemMeta();
         redstoneItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Redstone"));
-        redstoneItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Redstone is " + (plugin.toggles.getBoolean("redstone") ? "<green>enabled" : "<red>disabled"))));
+        redstoneItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Redstone is " + state("redstone", "<green>enabled", "<red>disabled"))));
         redstone.setItemMeta(redstoneItemMeta);
         inventory.setItem(3, redstone);
     }
@@ -72,42 +103,93 @@ public class ToggleMenu extends AbstractMenu
         ItemStack chat = new ItemStack(Material.OAK_SIGN);
         ItemMeta chatItemMeta = chat.getItemMeta();
         chatItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Toggle chat"));
-        chatItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Chat is currently " + (plugin.toggles.getBoolean("chat") ? "<green>on" : "<red>off"))));
+        chatItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Chat is currently " + state("chat", "<green>on", "<red>off"))));
         chat.setItemMeta(chatItemMeta);
         inventory.setItem(4, chat);
     }
 
+    private void resetPhysicsItem(Inventory inventory)
+    {
+        ItemStack gravel = new ItemStack(Material.GRAVEL);
+        ItemMeta gravelItemMeta = gravel.getItemMeta();
+        gravelItemMeta.displayName(PlexUtils.mmDeserialize("<!italic><light_purple>Toggle physics"));
+        int perChunk = plugin.getPolicy().getPhysics().perChunk();
+        int fallingBlocks = plugin.getPolicy().getPhysics().fallingBlocks();
+        gravelItemMeta.lore(List.of(PlexUtils.mmDeserialize("<!italic><yellow>Physics are " + state("physics", "<green>enabled", "<red>disabled")),
+                PlexUtils.mmDeserialize("<!italic><gray>Budget: " + (perChunk > 0 ? "<gold>" + perChunk : "<gold>unlimited") + " <gray>updates and "
+                        + (fallingBlocks > 0 ? "<gold>" + fallingBlocks : "<gold>unlimited") + " <gray>falling blocks per chunk per second"),
+                PlexUtils.mmDeserialize("<!italic><gray>Last second: <gold>" + plugin.getPhysicsBudget().getAllowed() + " <gray>updates, <gold>" + plugin.getPhysicsBudget().getDenied() + " <gray>held back"),
+                PlexUtils.mmDeserialize("<!italic><gray>Falling blocks: <gold>" + plugin.getFallingBlockBudget().getAllowed() + "<gray>, <gold>" + plugin.getFallingBlockBudget().getDenied() + " <gray>held back")));
+        gravel.setItemMeta(gravelItemMeta);
+        inventory.setItem(5, gravel);
+    }
+
+    /**
+     * Describes a toggle for its item. A toggle held off by lag protection shows as such, as it is off no matter what
+     * toggles.yml says.
+     */
+    private String state(String toggle, String enabled, String disabled)
+    {
+        if (plugin.getToggleState().isSuppressed(toggle))
+        {
+            return "<gold>held off by lag protection";
+        }
+        return plugin.getToggleState().get(toggle) ? enabled : disabled;
+    }
+
     @Override
     public boolean onClick(InventoryView view, Inventory inventory, Player player, ItemStack clicked)
     {
+        String toggle = switch (clicked.getType())
+        {
+            case TNT -> "explosions";
+            case WATER_BUCKET -> "fluidspread";
+            case FEATHER -> "drops";
+            case REDSTONE -> "redstone";
+            case GRAVEL -> "physics";
+            case OAK_SIGN -> "chat";
+            default -> null;
+        };
+        // Flipping the file value while it is held off would write the opposite of what the item shows
+        if (toggle != null && plugin.getToggleState().isSuppressed(toggle))
+        {
+            player.sendMessage(PlexUtils.messageComponent("toggleHeldOff", toggle));
+            return true;
+        }
         if (clicked.getType() == Material.TNT)
         {
-            plugin.toggles.set("explosions", !plugin.toggles.getBoolean("explosions"));
+            plugin.getToggleState().toggle("explosions");
             resetExplosionItem(inventory);
             player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled explosions."));
         }
         if (clicked.getType() == Material.WATER_BUCKET)
         {
-            plugin.toggles.set("fluidspread", !plugin.toggles.getBoolean("fluidspread"));
+            plugin.getToggleState().toggle("fluidspread");
             resetFluidspreadItem(inventory);
             player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled fluid spread."));
         }
         if (clicked.getType() == Material.FEATHER)
         {
-            plugin.toggles.set("drops", !plugin.toggles.getBoolean("drops"));
+            plugin.getToggleState().toggle("drops");
             resetDropsItem(inventory);
             player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled drops."));
         }
         if (clicked.getType() == Material.REDSTONE)
         {
-            plugin.toggles.set("redstone", !plugin.toggles.getBoolean("redstone"));
+            plugin.getToggleState().toggle("redstone");
             resetRedstoneItem(inventory);
             player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled redstone."));
         }
+        if (clicked.getType() == Material.GRAVEL)
+        {
+            plugin.getToggleState().toggle("physics");
+            resetPhysicsItem(inventory);
+            player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled physics."));
+        }
         if (clicked.getType() == Material.OAK_SIGN)
         {
-            plugin.toggles.set("chat", !plugin.toggles.getBoolean("chat"));
-            PlexUtils.broadcast(PlexUtils.messageComponent("chatToggled", player.getName(), plugin.toggles.getBoolean("chat") ? "on" : "off"));
+            plugin.getToggleState().toggle("chat");
+            PlexUtils.broadcast(PlexUtils.messageComponent("chatToggled", player.getName(), plugin.getToggleState().get("chat") ? "on" : "off"));
             resetChatItem(inventory);
             player.sendMessage(PlexUtils.mmDeserialize("<gray>Toggled chat."));
         }
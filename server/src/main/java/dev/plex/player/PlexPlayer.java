@@ -8,6 +8,7 @@ import dev.plex.punishment.PunishmentType;
 import dev.plex.punishment.extra.Note;
 import dev.plex.storage.annotation.MapObjectList;
 import dev.plex.storage.annotation.PrimaryKey;
+import dev.plex.storage.annotation.SQLColumn;
 import dev.plex.storage.annotation.SQLTable;
 import dev.plex.storage.annotation.VarcharLimit;
 import dev.plex.util.adapter.ZonedDateTimeAdapter;
@@ -38,11 +39,13 @@ public class PlexPlayer
     @NotNull
     private String name;
 
+    @SQLColumn("login_msg")
     private String loginMessage;
     private String prefix;
 
     private boolean staffChat;
     private boolean vanished;
+    @SQLColumn("commandspy")
     private boolean commandSpy;
 
     // These fields are transient so MongoDB doesn't automatically drop them in.
@@ -111,6 +114,30 @@ public class PlexPlayer
         Plex.get().getSqlNotes().getNotes(this.getUuid());
     }
 
+    /**
+     * Copies the player's columns and IPs so they can be written on another thread while this player keeps changing.
+     * Punishments and notes are stored on their own and are left out of the copy.
+     *
+     * @return the copy
+     */
+    public PlexPlayer snapshot()
+    {
+        PlexPlayer copy = new PlexPlayer();
+        copy.uuid = this.uuid;
+        copy.name = this.name;
+        copy.loginMessage = this.loginMessage;
+        copy.prefix = this.prefix;
+        copy.staffChat = this.staffChat;
+        copy.vanished = this.vanished;
+        copy.commandSpy = this.commandSpy;
+        copy.frozen = this.frozen;
+        copy.muted = this.muted;
+        copy.lockedUp = this.lockedUp;
+        copy.coins = this.coins;
+        copy.ips = this.ips == null ? Lists.newArrayList() : Lists.newArrayList(this.ips);
+        return copy;
+    }
+
     public String toJSON()
     {
         return new GsonBuilder().registerTypeAdapter(ZonedDateTime.class, new ZonedDateTimeAdapter()).create().toJson(this);
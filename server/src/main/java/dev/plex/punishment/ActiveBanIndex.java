@@ -0,0 +1,267 @@
+package dev.plex.punishment;
+
+import com.google.common.collect.Lists;
+import dev.plex.util.PlexLog;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of every active ban, keyed by the banned player's UUID and by the banned IP. It is loaded at startup
+ * and kept in sync by {@link PunishmentManager}, so ban checks never have to scan the punishments table. With shared
+ * storage it is only a fast path, as other servers can ban and unban too; it is then synced from the database every so
+ * often.
+ */
+public class ActiveBanIndex
+{
+    /**
+     * Rough retained size of one indexed ban without its strings: the punishment, its two UUIDs, its end date and
+     * the map nodes pointing at it
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 320;
+
+    private final Map<UUID, Punishment> byUuid = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> byIp = new ConcurrentHashMap<>();
+
+    /**
+     * When each player's ban was last added or removed on this server, so a sync doesn't undo a change that happened
+     * while its query was running
+     */
+    private final Map<UUID, Long> changed = new HashMap<>();
+
+    /**
+     * Replaces the index with the active bans out of the given punishments
+     *
+     * @param punishments The active punishments stored in the database
+     */
+    public synchronized void load(List<Punishment> punishments)
+    {
+        byUuid.clear();
+        byIp.clear();
+        changed.clear();
+        punishments.stream().filter(ActiveBanIndex::isActiveBan).forEach(this::index);
+        PlexLog.log("Indexed {0} active ban(s) across {1} IP(s)", byUuid.size(), byIp.size());
+    }
+
+    /**
+     * Brings the index in line with the active punishments in the database. Bans of players whose ban changed on this
+     * server since the query started are kept as they are, and bans that are already indexed under the same id are
+     * kept as the same object.
+     *
+     * @param punishments The active punishments stored in the database
+     * @param queriedAt   The {@link System#nanoTime()} from before the punishments were queried
+     * @return the bans that were added to and removed from the index
+     */
+    public synchronized Delta sync(List<Punishment> punishments, long queriedAt)
+    {
+        Map<UUID, Punishment> fresh = punishments.stream().filter(ActiveBanIndex::isActiveBan)
+                .collect(Collectors.toMap(Punishment::getPunished, punishment -> punishment, (first, second) -> second));
+        changed.values().removeIf(time -> time - queriedAt < 0);
+        for (UUID uuid : changed.keySet())
+        {
+            Punishment current = byUuid.get(uuid);
+            if (current == null)
+            {
+                fresh.remove(uuid);
+            }
+            else
+            {
+                fresh.put(uuid, current);
+            }
+        }
+
+        List<Punishment> added = Lists.newArrayList();
+        List<Punishment> removed = Lists.newArrayList();
+        for (Map.Entry<UUID, Punishment> entry : fresh.entrySet())
+        {
+            Punishment current = byUuid.get(entry.getKey());
+            if (current != null && (current == entry.getValue() || (current.getId() > 0 && current.getId() == entry.getValue().getId())))
+            {
+                entry.setValue(current);
+            }
+            else
+            {
+                added.add(entry.getValue());
+            }
+        }
+        for (Punishment current : byUuid.values())
+        {
+            if (fresh.get(current.getPunished()) != current)
+            {
+                removed.add(current);
+            }
+        }
+
+        for (Punishment punishment : removed)
+        {
+            byUuid.remove(punishment.getPunished());
+            unindexIp(punishment);
+        }
+        added.forEach(this::indexReplacing);
+        return new Delta(added, removed);
+    }
+
+    /**
+     * Adds a punishment to the index if it is an active ban
+     *
+     * @param punishment The punishment that was issued
+     */
+    public synchronized void add(Punishment punishment)
+    {
+        if (!isActiveBan(punishment))
+        {
+            return;
+        }
+        changed.put(punishment.getPunished(), System.nanoTime());
+        indexReplacing(punishment);
+    }
+
+    /**
+     * Removes every active ban of a player from the index
+     *
+     * @param uuid The unique ID of the banned player
+     */
+    public synchronized void remove(UUID uuid)
+    {
+        changed.put(uuid, System.nanoTime());
+        Punishment punishment = byUuid.remove(uuid);
+        if (punishment != null)
+        {
+            unindexIp(punishment);
+        }
+    }
+
+    /**
+     * Removes a player's ban from the index only if it is still the given punishment
+     *
+     * @param uuid       The unique ID of the banned player
+     * @param punishment The ban that should be removed
+     */
+    public synchronized void remove(UUID uuid, Punishment punishment)
+    {
+        if (byUuid.remove(uuid, punishment))
+        {
+            changed.put(uuid, System.nanoTime());
+            unindexIp(punishment);
+        }
+    }
+
+    public Punishment getBan(UUID uuid)
+    {
+        return byUuid.get(uuid);
+    }
+
+    public Punishment getBanByIP(String ip)
+    {
+        Set<UUID> uuids = byIp.get(ip);
+        if (uuids == null)
+        {
+            return null;
+        }
+        for (UUID uuid : uuids)
+        {
+            Punishment punishment = byUuid.get(uuid);
+            if (punishment != null)
+            {
+                return punishment;
+            }
+        }
+        return null;
+    }
+
+    public Collection<Punishment> getActiveBans()
+    {
+        return byUuid.values();
+    }
+
+    public int size()
+    {
+        return byUuid.size();
+    }
+
+    public int ipCount()
+    {
+        return byIp.size();
+    }
+
+    /**
+     * Estimates the heap retained by the index. This is an approximation meant for /pdebug, not an exact measurement.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateMemoryBytes()
+    {
+        long bytes = 0;
+        for (Punishment punishment : byUuid.values())
+        {
+            bytes += ENTRY_OVERHEAD_BYTES + stringBytes(punishment.getIp()) + stringBytes(punishment.getPunishedUsername()) + stringBytes(punishment.getReason());
+        }
+        for (String ip : byIp.keySet())
+        {
+            bytes += stringBytes(ip);
+        }
+        return bytes;
+    }
+
+    private void indexReplacing(Punishment punishment)
+    {
+        Punishment previous = byUuid.get(punishment.getPunished());
+        if (previous != null)
+        {
+            unindexIp(previous);
+        }
+        index(punishment);
+    }
+
+    private void index(Punishment punishment)
+    {
+        byUuid.put(punishment.getPunished(), punishment);
+        if (punishment.getIp() != null && !punishment.getIp().isEmpty())
+        {
+            byIp.computeIfAbsent(punishment.getIp(), ip -> ConcurrentHashMap.newKeySet()).add(punishment.getPunished());
+        }
+    }
+
+    private void unindexIp(Punishment punishment)
+    {
+        if (punishment.getIp() == null)
+        {
+            return;
+        }
+        byIp.computeIfPresent(punishment.getIp(), (ip, uuids) ->
+        {
+            uuids.remove(punishment.getPunished());
+            return uuids.isEmpty() ? null : uuids;
+        });
+    }
+
+    static boolean isActiveBan(Punishment punishment)
+    {
+        return punishment.isActive() && (punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN);
+    }
+
+    private static long stringBytes(String string)
+    {
+        return string == null ? 0 : 40 + string.length();
+    }
+
+    /**
+     * The changes a sync made to the index
+     *
+     * @param added   The bans that were not indexed before
+     * @param removed The bans that are no longer active
+     */
+    public record Delta(List<Punishment> added, List<Punishment> removed)
+    {
+        public boolean isEmpty()
+        {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.plex.punishment;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import dev.plex.Plex;
+import dev.plex.storage.annotation.PrimaryKey;
 import dev.plex.storage.annotation.SQLTable;
 import dev.plex.util.PlexUtils;
 import dev.plex.util.TimeUtils;
@@ -22,6 +23,8 @@ public class Punishment
 {
     private static final Gson gson = new GsonBuilder().registerTypeAdapter(ZonedDateTime.class, new ZonedDateTimeAdapter()).create();
     private static final String banUrl = Plex.get().config.getString("banning.ban_url");
+    @PrimaryKey
+    private long id; // Assigned by the database when the punishment is first written
     @NotNull
     private final UUID punished;
     private final UUID punisher;
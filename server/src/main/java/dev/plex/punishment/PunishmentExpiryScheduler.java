@@ -0,0 +1,66 @@
+package dev.plex.punishment;
+
+import dev.plex.util.TimingWheel;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tracks when timed punishments run out. Every active mute, freeze, ban and tempban is kept in one timing wheel keyed
+ * by player and type, so a new punishment of the same type replaces the old one.
+ */
+public class PunishmentExpiryScheduler
+{
+    private static final long TICK_MILLIS = 1000L;
+
+    private final TimingWheel<Key, Punishment> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+
+    public static boolean isTimed(PunishmentType type)
+    {
+        return type == PunishmentType.MUTE || type == PunishmentType.FREEZE || type == PunishmentType.BAN || type == PunishmentType.TEMPBAN;
+    }
+
+    /**
+     * Schedules an active timed punishment to expire at its end date
+     *
+     * @param punishment The punishment
+     */
+    public void schedule(Punishment punishment)
+    {
+        if (!punishment.isActive() || !isTimed(punishment.getType()) || punishment.getEndDate() == null)
+        {
+            return;
+        }
+        wheel.schedule(new Key(punishment.getPunished(), punishment.getType()), punishment, punishment.getEndDate().toInstant().toEpochMilli());
+    }
+
+    /**
+     * Stops a punishment from expiring, usually because it was lifted by hand
+     *
+     * @param uuid The unique ID of the punished player
+     * @param type The type of the punishment
+     */
+    public void cancel(UUID uuid, PunishmentType type)
+    {
+        wheel.cancel(new Key(uuid, type));
+    }
+
+    /**
+     * Advances the wheel to the current time
+     *
+     * @return the punishments that expired since the last call
+     */
+    public List<Punishment> poll()
+    {
+        return wheel.advance(System.currentTimeMillis());
+    }
+
+    public int size()
+    {
+        return wheel.size();
+    }
+
+    private record Key(UUID uuid, PunishmentType type)
+    {
+    }
+}
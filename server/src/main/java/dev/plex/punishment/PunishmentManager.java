@@ -1,24 +1,24 @@
 package dev.plex.punishment;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import dev.plex.Plex;
 import dev.plex.PlexBase;
 import dev.plex.cache.DataUtils;
+import dev.plex.event.PunishmentExpireEvent;
 import dev.plex.player.PlexPlayer;
+import dev.plex.storage.StorageType;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
-import dev.plex.util.TimeUtils;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
@@ -30,13 +30,16 @@ import lombok.Data;
 import lombok.Getter;
 import org.apache.commons.io.FileUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.Nullable;
 
 public class PunishmentManager implements PlexBase
 {
     @Getter
     private final List<IndefiniteBan> indefiniteBans = Lists.newArrayList();
+    @Getter
+    private final ActiveBanIndex activeBanIndex = new ActiveBanIndex();
+    @Getter
+    private final PunishmentExpiryScheduler expiryScheduler = new PunishmentExpiryScheduler();
 
     public void mergeIndefiniteBans()
     {
@@ -105,9 +108,70 @@ public class PunishmentManager implements PlexBase
     public void issuePunishment(PlexPlayer plexPlayer, Punishment punishment)
     {
         plexPlayer.getPunishments().add(punishment);
+        activeBanIndex.add(punishment);
+        expiryScheduler.schedule(punishment);
         Plex.get().getSqlPunishment().insertPunishment(punishment);
     }
 
+    /**
+     * Loads every active punishment once, indexes the active bans and schedules everything that can expire. Anything
+     * that already ran out while the server was offline is lifted without a broadcast.
+     */
+    public void loadActivePunishments()
+    {
+        List<Punishment> punishments = Plex.get().getSqlPunishment().getActivePunishments();
+        activeBanIndex.load(punishments);
+        punishments.forEach(expiryScheduler::schedule);
+        List<Punishment> expired = expiryScheduler.poll();
+        if (!expired.isEmpty())
+        {
+            expire(expired, false);
+        }
+        PlexLog.log("Scheduled {0} timed punishment(s), lifted {1} that expired while offline", expiryScheduler.size(), expired.size());
+    }
+
+    /**
+     * Lifts punishments that ran out. Bans are removed from the index, cached players are updated, and every
+     * punishment is marked inactive in one database batch.
+     *
+     * @param punishments The punishments that expired
+     * @param announce    Whether to broadcast each lifted punishment
+     */
+    public void expire(List<Punishment> punishments, boolean announce)
+    {
+        Bukkit.getPluginManager().callEvent(new PunishmentExpireEvent(punishments));
+        Set<PlexPlayer> changed = Sets.newHashSet();
+        for (Punishment punishment : punishments)
+        {
+            punishment.setActive(false);
+            Plex.get().getOfflinePlayerCache().invalidate(punishment.getPunished());
+            String name = punishment.getPunishedUsername() != null ? punishment.getPunishedUsername() : Bukkit.getOfflinePlayer(punishment.getPunished()).getName();
+            if (punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN)
+            {
+                activeBanIndex.remove(punishment.getPunished(), punishment);
+                if (announce)
+                {
+                    Bukkit.broadcast(PlexUtils.messageComponent("banExpiredBroadcast", name));
+                }
+                continue;
+            }
+
+            PlexPlayer player = Plex.get().getPlayerCache().getPlexPlayer(punishment.getPunished());
+            if (player != null)
+            {
+                player.getPunishments().stream().filter(other -> other.getType() == punishment.getType()).forEach(other -> other.setActive(false));
+                player.checkMutesAndFreeze();
+                changed.add(player);
+            }
+            if (announce)
+            {
+                Bukkit.broadcast(PlexUtils.messageComponent(punishment.getType() == PunishmentType.MUTE ? "unmutedPlayer" : "unfrozePlayer", "Plex", name));
+            }
+        }
+        Plex.get().getSqlPunishment().deactivate(punishments);
+        changed.forEach(DataUtils::update);
+    }
+
     private boolean isNotEmpty(File file)
     {
         try
@@ -121,33 +185,111 @@ public class PunishmentManager implements PlexBase
         return false;
     }
 
-    public CompletableFuture<Boolean> isAsyncBanned(UUID uuid)
+    /**
+     * Refreshes the ban index from the database, picking up bans and unbans issued by other servers sharing it. Bans
+     * that appeared are scheduled to expire here too, and bans that are gone stop being scheduled.
+     */
+    public void refreshActiveBans()
     {
-        return CompletableFuture.supplyAsync(() ->
+        long queriedAt = System.nanoTime();
+        List<Punishment> punishments = Plex.get().getSqlPunishment().getActivePunishments();
+        ActiveBanIndex.Delta delta = activeBanIndex.sync(punishments, queriedAt);
+        if (delta.isEmpty())
         {
-            if (!DataUtils.hasPlayedBefore(uuid))
-            {
-                return false;
-            }
+            return;
+        }
+        for (Punishment punishment : delta.removed())
+        {
+            expiryScheduler.cancel(punishment.getPunished(), punishment.getType());
+            Plex.get().getOfflinePlayerCache().invalidate(punishment.getPunished());
+        }
+        for (Punishment punishment : delta.added())
+        {
+            expiryScheduler.schedule(punishment);
+            Plex.get().getOfflinePlayerCache().invalidate(punishment.getPunished());
+        }
+        PlexLog.debug("Synced the ban index, {0} ban(s) added and {1} removed", delta.added().size(), delta.removed().size());
+    }
 
-            PlexPlayer player = DataUtils.getPlayer(uuid);
-            player.loadPunishments();
-            return player.getPunishments().stream().anyMatch(punishment -> (punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN) && punishment.isActive());
-        });
+    /**
+     * Whether other servers may be banning and unbanning in the same database, in which case the ban index can be
+     * behind until its next refresh
+     */
+    public boolean isSharedStorage()
+    {
+        return Plex.get().getStorageType() == StorageType.MARIADB;
     }
 
-    public boolean isBanned(UUID uuid)
+    /**
+     * Gets the active ban of a player. The index is checked first, and with shared storage a miss is looked up in the
+     * database as another server may have issued the ban since the last refresh. Blocks on a miss, so call it off the
+     * main thread.
+     *
+     * @param uuid The unique ID of the player
+     * @return the active ban, or null if the player isn't banned
+     */
+    @Nullable
+    public Punishment findActiveBan(UUID uuid)
     {
-        if (!DataUtils.hasPlayedBefore(uuid))
+        Punishment ban = activeBanIndex.getBan(uuid);
+        if (ban != null || !isSharedStorage())
         {
-            return false;
+            return ban;
         }
-        return DataUtils.getPlayer(uuid).getPunishments().stream().anyMatch(punishment -> (punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN) && punishment.isActive());
+        return remember(Plex.get().getSqlPunishment().getPunishments(uuid).stream().filter(ActiveBanIndex::isActiveBan).findFirst().orElse(null));
+    }
+
+    /**
+     * Gets an active ban of an IP address, checking the database on a miss with shared storage like
+     * {@link #findActiveBan(UUID)}. Blocks on a miss, so call it off the main thread.
+     *
+     * @param ip The IP address
+     * @return the active ban, or null if the IP isn't banned
+     */
+    @Nullable
+    public Punishment findBanByIP(String ip)
+    {
+        Punishment ban = activeBanIndex.getBanByIP(ip);
+        if (ban != null || !isSharedStorage())
+        {
+            return ban;
+        }
+        return remember(Plex.get().getSqlPunishment().getPunishments(ip).stream().filter(ActiveBanIndex::isActiveBan).filter(punishment -> ip.equals(punishment.getIp())).findFirst().orElse(null));
+    }
+
+    private Punishment remember(Punishment ban)
+    {
+        if (ban != null)
+        {
+            activeBanIndex.add(ban);
+            expiryScheduler.schedule(ban);
+        }
+        return ban;
+    }
+
+    public CompletableFuture<Boolean> isAsyncBanned(UUID uuid)
+    {
+        if (!isSharedStorage())
+        {
+            return CompletableFuture.completedFuture(isBanned(uuid));
+        }
+        return Plex.get().getStorageExecutor().supply("punishments.is_banned", () -> findActiveBan(uuid) != null);
+    }
+
+    public boolean isBanned(UUID uuid)
+    {
+        return activeBanIndex.getBan(uuid) != null;
+    }
+
+    @Nullable
+    public Punishment getActiveBan(UUID uuid)
+    {
+        return activeBanIndex.getBan(uuid);
     }
 
     public Punishment getBanByIP(String ip)
     {
-        return plugin.getSqlPunishment().getPunishments(ip).stream().filter(punishment -> punishment.getType() == PunishmentType.TEMPBAN || punishment.getType() == PunishmentType.BAN).filter(Punishment::isActive).filter(punishment -> punishment.getIp().equals(ip)).findFirst().orElse(null);
+        return activeBanIndex.getBanByIP(ip);
     }
 
     public boolean isBanned(PlexPlayer player)
@@ -157,16 +299,7 @@ public class PunishmentManager implements PlexBase
 
     public CompletableFuture<List<Punishment>> getActiveBans()
     {
-        //PlexLog.debug("Checking active bans mysql");
-        CompletableFuture<List<Punishment>> future = new CompletableFuture<>();
-        Plex.get().getSqlPunishment().getPunishments().whenComplete((punishments, throwable) ->
-        {
-            //PlexLog.debug("Received Punishments");
-            List<Punishment> punishmentList = punishments.stream().filter(Punishment::isActive).filter(punishment -> punishment.getType() == PunishmentType.BAN || punishment.getType() == PunishmentType.TEMPBAN).toList();
-            //PlexLog.debug("Completing with {0} punishments", punishmentList.size());
-            future.complete(punishmentList);
-        });
-        return future;
+        return CompletableFuture.completedFuture(List.copyOf(activeBanIndex.getActiveBans()));
     }
 
     public void unban(Punishment punishment)
@@ -176,6 +309,9 @@ public class PunishmentManager implements PlexBase
 
     public CompletableFuture<Void> unban(UUID uuid)
     {
+        activeBanIndex.remove(uuid);
+        expiryScheduler.cancel(uuid, PunishmentType.BAN);
+        expiryScheduler.cancel(uuid, PunishmentType.TEMPBAN);
         return Plex.get().getSqlPunishment().removeBan(uuid);
     }
 
@@ -189,53 +325,10 @@ public class PunishmentManager implements PlexBase
         if (punishment.getType() == PunishmentType.FREEZE)
         {
             player.setFrozen(true);
-            ZonedDateTime now = ZonedDateTime.now(ZoneId.of(TimeUtils.TIMEZONE));
-            ZonedDateTime then = punishment.getEndDate();
-            long seconds = ChronoUnit.SECONDS.between(now, then);
-            new BukkitRunnable()
-            {
-                @Override
-                public void run()
-                {
-                    PlexPlayer afterPlayer = DataUtils.getPlayer(player.getUuid());
-                    if (!afterPlayer.isFrozen())
-                    {
-                        this.cancel();
-                        return;
-                    }
-                    afterPlayer.setFrozen(false);
-                    punishment.setActive(false);
-                    plugin.getSqlPunishment().updatePunishment(punishment.getType(), false, punishment.getPunished());
-
-                    DataUtils.update(afterPlayer);
-                    Bukkit.broadcast(PlexUtils.messageComponent("unfrozePlayer", "Plex", Bukkit.getOfflinePlayer(afterPlayer.getUuid()).getName()));
-                }
-            }.runTaskLater(Plex.get(), 20 * seconds);
         }
         else if (punishment.getType() == PunishmentType.MUTE)
         {
             player.setMuted(true);
-            ZonedDateTime now = ZonedDateTime.now(ZoneId.of(TimeUtils.TIMEZONE));
-            ZonedDateTime then = punishment.getEndDate();
-            long seconds = ChronoUnit.SECONDS.between(now, then);
-            new BukkitRunnable()
-            {
-                @Override
-                public void run()
-                {
-                    PlexPlayer afterPlayer = DataUtils.getPlayer(player.getUuid());
-                    if (!afterPlayer.isMuted())
-                    {
-                        this.cancel();
-                        return;
-                    }
-                    afterPlayer.setMuted(false);
-                    punishment.setActive(false);
-                    plugin.getSqlPunishment().updatePunishment(punishment.getType(), false, punishment.getPunished());
-
-                    Bukkit.broadcast(PlexUtils.messageComponent("unmutedPlayer", "Plex", Bukkit.getOfflinePlayer(afterPlayer.getUuid()).getName()));
-                }
-            }.runTaskLater(Plex.get(), 20 * seconds);
         }
     }
 
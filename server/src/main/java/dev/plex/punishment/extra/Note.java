@@ -2,6 +2,8 @@ package dev.plex.punishment.extra;
 
 import com.google.gson.GsonBuilder;
 import dev.plex.storage.annotation.NoLimit;
+import dev.plex.storage.annotation.PrimaryKey;
+import dev.plex.storage.annotation.SQLColumn;
 import dev.plex.storage.annotation.SQLTable;
 import dev.plex.util.adapter.ZonedDateTimeAdapter;
 import lombok.Data;
@@ -17,10 +19,14 @@ public class Note
 
     @NoLimit
     private final String note;
+    @SQLColumn("written_by")
     private final UUID writtenBy;
     private final ZonedDateTime timestamp;
 
     private int id; // This will be automatically set from addNote
+    @PrimaryKey
+    @SQLColumn("note_id")
+    private long noteId; // Assigned by the database when the note is first written
 
     public String toJSON()
     {
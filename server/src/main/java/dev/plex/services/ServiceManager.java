@@ -3,10 +3,12 @@ package dev.plex.services;
 import com.google.common.collect.Lists;
 import dev.plex.Plex;
 import dev.plex.services.impl.AutoWipeService;
-import dev.plex.services.impl.BanService;
+import dev.plex.services.impl.BanIndexRefreshService;
 import dev.plex.services.impl.CommandBlockerService;
+import dev.plex.services.impl.EntityCensusService;
 import dev.plex.services.impl.GameRuleService;
-import dev.plex.services.impl.TimingService;
+import dev.plex.services.impl.LagProtectionService;
+import dev.plex.services.impl.PunishmentExpiryService;
 import dev.plex.services.impl.UpdateCheckerService;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -19,10 +21,12 @@ public class ServiceManager
     public ServiceManager()
     {
         registerService(new AutoWipeService());
-        registerService(new BanService());
+        registerService(new BanIndexRefreshService());
         registerService(new CommandBlockerService());
+        registerService(new EntityCensusService());
         registerService(new GameRuleService());
-        registerService(new TimingService());
+        registerService(new LagProtectionService());
+        registerService(new PunishmentExpiryService());
         registerService(new UpdateCheckerService());
     }
 
@@ -1,61 +1,163 @@
 package dev.plex.services.impl;
 
 import dev.plex.Plex;
+import dev.plex.entity.ChunkWalk;
+import dev.plex.entity.EntityCensus;
+import dev.plex.entity.EntityWipe;
 import dev.plex.services.AbstractService;
 import dev.plex.util.PlexLog;
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 
+/**
+ * Wipes the entity types in autowipe.entities. In adaptive mode it checks the entity census and tick time often and
+ * only wipes the chunks that are over a threshold, while the interval becomes the longest time between wipes.
+ */
 public class AutoWipeService extends AbstractService
 {
+    private CompletableFuture<EntityWipe.Result> running;
+    private Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+    private long lastWipe = System.nanoTime();
+
     public AutoWipeService()
     {
         super(true, false);
     }
 
+    @Override
+    public void onStart()
+    {
+        Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+        for (String entityName : plugin.config.getStringList("autowipe.entities"))
+        {
+            try
+            {
+                types.add(EntityType.valueOf(entityName.toUpperCase(Locale.ROOT)));
+            }
+            catch (IllegalArgumentException e)
+            {
+                PlexLog.debug("Unknown entity type in autowipe.entities: " + entityName);
+            }
+        }
+        this.types = types;
+        this.lastWipe = System.nanoTime();
+    }
+
     @Override
     public void run(ScheduledTask task)
     {
-        if (Plex.get().config.getBoolean("autowipe.enabled"))
+        if (!Plex.get().config.getBoolean("autowipe.enabled") || types.isEmpty())
         {
-            List<String> entities = plugin.config.getStringList("autowipe.entities");
+            return;
+        }
+        // A wipe spread over many ticks may still be going on a very busy server
+        if (running != null && !running.isDone())
+        {
+            PlexLog.debug("Skipping autowipe as the previous wipe has not finished yet");
+            return;
+        }
+
+        if (!isAdaptive() || System.nanoTime() - lastWipe >= TimeUnit.SECONDS.toNanos(interval()))
+        {
+            wipe(EntityWipe.start(EntityWipe.Filter.of(types)), "Autowipe");
+            return;
+        }
 
-            for (World world : Bukkit.getWorlds())
+        Map<ChunkWalk.ChunkPos, Set<EntityType>> targets = findTargets();
+        if (!targets.isEmpty())
+        {
+            wipe(EntityWipe.start(targets), "Adaptive autowipe");
+        }
+    }
+
+    /**
+     * Finds the chunks with too many entities of a wiped type, and which of the types to wipe from them
+     */
+    private Map<ChunkWalk.ChunkPos, Set<EntityType>> findTargets()
+    {
+        EntityCensus census = plugin.getEntityCensus();
+        // Until every entity is counted, the census could miss the very chunks that need wiping
+        if (!census.isSynced())
+        {
+            return Map.of();
+        }
+        int chunkThreshold = plugin.config.getInt("autowipe.adaptive.chunk_threshold", 50);
+        int worldThreshold = plugin.config.getInt("autowipe.adaptive.world_threshold", 1000);
+        int maxChunks = Math.max(1, plugin.config.getInt("autowipe.adaptive.max_chunks", 16));
+        double msptThreshold = plugin.config.getDouble("autowipe.adaptive.mspt_threshold", 70);
+        if (msptThreshold > 0 && getMspt() >= msptThreshold)
+        {
+            chunkThreshold = plugin.config.getInt("autowipe.adaptive.lagging_chunk_threshold", 20);
+        }
+
+        Map<ChunkWalk.ChunkPos, Set<EntityType>> targets = new HashMap<>();
+        for (World world : Bukkit.getWorlds())
+        {
+            for (EntityType type : types)
             {
-                for (Entity entity : world.getEntities())
+                int inWorld = census.count(world, type);
+                if (inWorld == 0)
                 {
-                    if (entities.stream().anyMatch(entityName -> entityName.equalsIgnoreCase(entity.getType().name())))
+                    continue;
+                }
+                // A crowded world has its most crowded chunks wiped, even if none of them is over the chunk threshold
+                boolean worldOver = worldThreshold > 0 && inWorld >= worldThreshold;
+                for (EntityCensus.ChunkCount chunk : census.topChunks(world, type, maxChunks))
+                {
+                    if (worldOver || (chunkThreshold > 0 && chunk.count() >= chunkThreshold))
                     {
-                        Bukkit.getRegionScheduler().run(Plex.get(), entity.getLocation(), this::entityRun);
+                        targets.computeIfAbsent(ChunkWalk.ChunkPos.of(world, chunk.x(), chunk.z()), key -> EnumSet.noneOf(EntityType.class)).add(type);
                     }
                 }
             }
         }
+        return targets;
     }
 
-    private void entityRun(ScheduledTask task)
+    private double getMspt()
     {
-        List<String> entities = plugin.config.getStringList("autowipe.entities");
+        LagProtectionService lagProtection = (LagProtectionService) plugin.getServiceManager().getService(LagProtectionService.class);
+        return lagProtection == null ? 0 : lagProtection.getMspt();
+    }
 
-        for (World world : Bukkit.getWorlds())
+    private void wipe(CompletableFuture<EntityWipe.Result> wipe, String name)
+    {
+        lastWipe = System.nanoTime();
+        running = wipe;
+        running.whenComplete((result, throwable) ->
         {
-            for (Entity entity : world.getEntities())
+            if (throwable != null)
             {
-                if (entities.stream().anyMatch(entityName -> entityName.equalsIgnoreCase(entity.getType().name())))
-                {
-                    entity.remove();
-                    task.cancel();
-                }
+                PlexLog.error("{0} failed: {1}", name, throwable.getMessage());
+                throwable.printStackTrace();
+                return;
             }
-        }
+            PlexLog.debug("{0} removed {1} entities from {2} chunks over {3} ticks in {4} ms", name, result.total(), result.chunks(), result.ticks(), result.durationMillis());
+        });
+    }
+
+    private boolean isAdaptive()
+    {
+        return plugin.config.getBoolean("autowipe.adaptive.enabled", true);
+    }
+
+    private int interval()
+    {
+        return Math.max(1, plugin.config.getInt("autowipe.interval"));
     }
 
     @Override
     public int repeatInSeconds()
     {
-        return Math.max(1, plugin.config.getInt("autowipe.interval"));
+        return isAdaptive() ? Math.max(1, Math.min(interval(), plugin.config.getInt("autowipe.adaptive.check_interval", 10))) : interval();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package dev.plex.services.impl;
+
+import dev.plex.Plex;
+import dev.plex.services.AbstractService;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+/**
+ * Syncs the ban index with the database when it is shared with other servers, so their bans and unbans apply here
+ * without a restart
+ */
+public class BanIndexRefreshService extends AbstractService
+{
+    public BanIndexRefreshService()
+    {
+        super(true, true);
+    }
+
+    @Override
+    public void run(ScheduledTask task)
+    {
+        if (!Plex.get().getPunishmentManager().isSharedStorage() || plugin.config.getInt("punishments.ban_index_refresh", 30) <= 0)
+        {
+            return;
+        }
+        Plex.get().getPunishmentManager().refreshActiveBans();
+    }
+
+    @Override
+    public int repeatInSeconds()
+    {
+        return Math.max(1, plugin.config.getInt("punishments.ban_index_refresh", 30));
+    }
+}
@@ -2,6 +2,7 @@ package dev.plex.services.impl;
 
 import com.google.common.collect.Lists;
 import dev.plex.command.blocking.BlockedCommand;
+import dev.plex.command.blocking.CommandBlockMatcher;
 import dev.plex.services.AbstractService;
 import dev.plex.util.PlexLog;
 import dev.plex.util.PlexUtils;
@@ -17,6 +18,12 @@ public class CommandBlockerService extends AbstractService
     @Getter
     private static final List<BlockedCommand> BLOCKED_COMMANDS = Lists.newArrayList();
 
+    /**
+     * The blocked commands compiled for lookups, replaced as a whole whenever the list is reloaded
+     */
+    @Getter
+    private static volatile CommandBlockMatcher matcher = new CommandBlockMatcher(List.of());
+
     public CommandBlockerService()
     {
         super(false, false);
@@ -48,6 +55,12 @@ public class CommandBlockerService extends AbstractService
                 command.setRequiredLevel(args[1]);
                 command.setCommand(args[2]);
                 command.setMessage(s.substring(lastDelim + 1).equalsIgnoreCase("_") ? PlexUtils.messageComponent("commandBlocked") : PlexUtils.mmDeserialize(s.substring(lastDelim + 1)));
+                if (command.getCommand().split(" ")[0].endsWith(":"))
+                {
+                    // "plugin:" blocks every namespaced command of a plugin, which isn't a command of its own
+                    BLOCKED_COMMANDS.add(command);
+                    return;
+                }
                 Command cmd = plugin.getServer().getCommandMap().getCommand(command.getCommand().split(" ")[0]);
                 if (cmd == null)
                 {
@@ -65,6 +78,7 @@ public class CommandBlockerService extends AbstractService
             }
             BLOCKED_COMMANDS.add(command);
         });
+        matcher = new CommandBlockMatcher(BLOCKED_COMMANDS);
         PlexLog.log("Command Blocker has loaded {0} entries!", BLOCKED_COMMANDS.size());
     }
 
@@ -0,0 +1,50 @@
+package dev.plex.services.impl;
+
+import dev.plex.entity.ChunkWalk;
+import dev.plex.services.AbstractService;
+import dev.plex.util.PlexLog;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import java.util.concurrent.CompletableFuture;
+import org.bukkit.World;
+
+/**
+ * Walks every loaded chunk now and then to move entities that wandered into other chunks back to the right chunk in
+ * the entity census. The first walk also counts every entity that existed before Plex enabled.
+ */
+public class EntityCensusService extends AbstractService
+{
+    private CompletableFuture<ChunkWalk.Stats> running;
+
+    public EntityCensusService()
+    {
+        super(true, false);
+    }
+
+    @Override
+    public void run(ScheduledTask task)
+    {
+        if (running != null && !running.isDone())
+        {
+            return;
+        }
+        running = ChunkWalk.start((World world, int chunkX, int chunkZ) -> true, plugin.getEntityCensus()::resync,
+                plugin.config.getDouble("entity_census.resync_budget", 2));
+        running.whenComplete((stats, throwable) ->
+        {
+            if (throwable != null)
+            {
+                PlexLog.error("Entity census resync failed: {0}", throwable.getMessage());
+                throwable.printStackTrace();
+                return;
+            }
+            plugin.getEntityCensus().setSynced(true);
+            PlexLog.debug("Entity census resynced {0} chunks over {1} ticks in {2} ms", stats.chunks(), stats.ticks(), stats.durationMillis());
+        });
+    }
+
+    @Override
+    public int repeatInSeconds()
+    {
+        return Math.max(1, plugin.config.getInt("entity_census.resync_interval", 60));
+    }
+}
@@ -0,0 +1,213 @@
+package dev.plex.services.impl;
+
+import dev.plex.services.AbstractService;
+import dev.plex.util.PlexLog;
+import dev.plex.util.PlexUtils;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.bukkit.Bukkit;
+
+/**
+ * Steps through the levels of lag protection as the milliseconds per tick rise, holding toggles off and scaling the
+ * activity budgets down. Levels are entered as soon as their MSPT is reached, but only left once the server stayed well
+ * below it for a number of checks, so protection doesn't flap on the edge of a threshold.
+ */
+public class LagProtectionService extends AbstractService
+{
+    private static final int SAMPLES = 100;
+
+    /**
+     * The time between ticks of a server that keeps up. Measured intervals never go below it, and sit a little above it
+     * on a healthy server.
+     */
+    private static final double TICK_TARGET_MSPT = 50;
+    private static final double TICK_TARGET_SLACK = 2.5;
+
+    /**
+     * The time between the last ticks of the global region, which the service runs on
+     */
+    private final long[] intervals = new long[SAMPLES];
+    private int sampleCursor = 0;
+    private int sampleCount = 0;
+    private long lastTick = 0;
+    private boolean averageTickTimeSupported = true;
+
+    private List<Level> levels = Collections.emptyList();
+    private int level = 0;
+    private int calmChecks = 0;
+
+    public LagProtectionService()
+    {
+        super(true, false);
+    }
+
+    @Override
+    public void onStart()
+    {
+        levels = loadLevels();
+        if (level > levels.size())
+        {
+            apply(levels.size(), getMspt());
+        }
+        lastTick = 0;
+        sampleCursor = 0;
+        sampleCount = 0;
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> sample(), 1, 1);
+    }
+
+    @Override
+    public void run(ScheduledTask task)
+    {
+        if (!plugin.config.getBoolean("lag_protection.enabled", true) || levels.isEmpty())
+        {
+            if (level > 0)
+            {
+                apply(0, getMspt());
+            }
+            return;
+        }
+        double mspt = getMspt();
+        int reached = 0;
+        for (int i = 0; i < levels.size(); i++)
+        {
+            if (mspt >= levels.get(i).mspt())
+            {
+                reached = i + 1;
+            }
+        }
+        if (reached > level)
+        {
+            calmChecks = 0;
+            apply(reached, mspt);
+        }
+        else if (level > 0 && mspt < recoverBelow(levels.get(level - 1).mspt()))
+        {
+            if (++calmChecks >= plugin.config.getInt("lag_protection.recover_checks", 6))
+            {
+                calmChecks = 0;
+                apply(level - 1, mspt);
+            }
+        }
+        else
+        {
+            calmChecks = 0;
+        }
+    }
+
+    /**
+     * Gets the MSPT a level is left below. Without the server's own tick time the measured interval never drops below
+     * the tick target, so the threshold is kept above it or a level close to the target could never be left.
+     */
+    private double recoverBelow(double levelMspt)
+    {
+        double below = levelMspt - plugin.config.getDouble("lag_protection.recover_margin", 10);
+        if (averageTickTimeSupported)
+        {
+            return below;
+        }
+        return Math.min(levelMspt, Math.max(below, TICK_TARGET_MSPT + TICK_TARGET_SLACK));
+    }
+
+    private void sample()
+    {
+        long now = System.nanoTime();
+        if (lastTick != 0)
+        {
+            intervals[sampleCursor] = now - lastTick;
+            sampleCursor = (sampleCursor + 1) % SAMPLES;
+            sampleCount = Math.min(sampleCount + 1, SAMPLES);
+        }
+        lastTick = now;
+    }
+
+    /**
+     * Gets the recent milliseconds per tick. This is the server's own average time spent ticking where it reports one.
+     * Otherwise it is the measured time between ticks of the global region, which is the tick target (50) on a server
+     * that keeps up and only shows the work done per tick once ticks take longer than that. Must be called on the
+     * global region.
+     *
+     * @return the milliseconds per tick
+     */
+    public double getMspt()
+    {
+        if (averageTickTimeSupported)
+        {
+            try
+            {
+                return Bukkit.getAverageTickTime();
+            }
+            catch (UnsupportedOperationException e)
+            {
+                // Folia has no single main thread to average
+                averageTickTimeSupported = false;
+            }
+        }
+        if (sampleCount == 0)
+        {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < sampleCount; i++)
+        {
+            total += intervals[i];
+        }
+        return total / (double) sampleCount / 1_000_000D;
+    }
+
+    private void apply(int newLevel, double mspt)
+    {
+        boolean raised = newLevel > level;
+        level = newLevel;
+        Set<String> disabled = level == 0 ? Collections.emptySet() : levels.get(level - 1).disable();
+        double budgetScale = level == 0 ? 1 : levels.get(level - 1).budgetScale();
+        plugin.getToggleState().setSuppressed(disabled);
+        plugin.setPolicy(plugin.getPolicy().withBudgetScale(budgetScale));
+
+        String toggles = disabled.isEmpty() ? "nothing" : String.join(", ", disabled);
+        String formattedMspt = String.format("%.1f", mspt);
+        int budgetPercent = (int) Math.round(budgetScale * 100);
+        PlexLog.log("Lag protection {0} to level {1} at {2} MSPT, holding off {3} with budgets at {4}%", raised ? "raised" : "lowered", level, formattedMspt, toggles, budgetPercent);
+        PlexUtils.broadcastToAdmins(PlexUtils.messageComponent(raised ? "lagProtectionRaised" : "lagProtectionLowered", level, formattedMspt, toggles, budgetPercent), "plex.lagprotection.notify");
+    }
+
+    private List<Level> loadLevels()
+    {
+        List<Level> loaded = new ArrayList<>();
+        for (Map<?, ?> map : plugin.config.getMapList("lag_protection.levels"))
+        {
+            try
+            {
+                double mspt = Double.parseDouble(String.valueOf(map.get("mspt")));
+                Set<String> disable = new HashSet<>();
+                if (map.get("disable") instanceof List<?> toggles)
+                {
+                    toggles.forEach(toggle -> disable.add(String.valueOf(toggle).toLowerCase(Locale.ROOT)));
+                }
+                Object budgetScale = map.get("budget_scale");
+                loaded.add(new Level(mspt, Collections.unmodifiableSet(disable), budgetScale == null ? 1 : Math.max(0, Math.min(1, Double.parseDouble(String.valueOf(budgetScale))))));
+            }
+            catch (NumberFormatException e)
+            {
+                PlexLog.warn("Skipping lag protection level with an invalid number: {0}", map);
+            }
+        }
+        loaded.sort((a, b) -> Double.compare(a.mspt(), b.mspt()));
+        return loaded;
+    }
+
+    @Override
+    public int repeatInSeconds()
+    {
+        return Math.max(1, plugin.config.getInt("lag_protection.interval", 5));
+    }
+
+    private record Level(double mspt, Set<String> disable, double budgetScale)
+    {
+    }
+}
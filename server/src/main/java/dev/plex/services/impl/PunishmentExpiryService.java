@@ -0,0 +1,33 @@
+package dev.plex.services.impl;
+
+import dev.plex.Plex;
+import dev.plex.punishment.Punishment;
+import dev.plex.services.AbstractService;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+import java.util.List;
+
+public class PunishmentExpiryService extends AbstractService
+{
+    public PunishmentExpiryService()
+    {
+        super(true, true);
+    }
+
+    @Override
+    public void run(ScheduledTask task)
+    {
+        List<Punishment> expired = Plex.get().getPunishmentManager().getExpiryScheduler().poll();
+        if (!expired.isEmpty())
+        {
+            Plex.get().getPunishmentManager().expire(expired, true);
+        }
+    }
+
+    @Override
+    public int repeatInSeconds()
+    {
+        // Matches the tick of the expiry wheel
+        return 1;
+    }
+}
@@ -4,18 +4,19 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import dev.plex.Plex;
 import dev.plex.PlexBase;
+import dev.plex.storage.migration.MigrationRunner;
 import lombok.Getter;
 
 import java.io.File;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Properties;
 
 @Getter
 public class SQLConnection implements PlexBase
 {
     private HikariDataSource dataSource;
+    private SQLiteWriter sqliteWriter;
 
     public SQLConnection()
     {
@@ -45,7 +46,7 @@ public class SQLConnection implements PlexBase
         {
             if (plugin.config.getString("data.central.storage").equalsIgnoreCase("sqlite"))
             {
-                dataSource.setJdbcUrl("jdbc:sqlite:" + new File(plugin.getDataFolder(), "database.db").getAbsolutePath());
+                setupSQLite();
                 plugin.setStorageType(StorageType.SQLITE);
             }
             else if (plugin.config.getString("data.central.storage").equalsIgnoreCase("mariadb"))
@@ -57,17 +58,13 @@ public class SQLConnection implements PlexBase
                 Plex.get().setStorageType(StorageType.MARIADB);
             }
         }
-        catch (ClassNotFoundException throwables)
+        catch (ClassNotFoundException | SQLException throwables)
         {
             throwables.printStackTrace();
         }
 
         try (Connection con = getCon())
         {
-            if (tableExistsSQL("players"))
-            {
-
-            }
             con.prepareStatement("CREATE TABLE IF NOT EXISTS `players` (" +
                     "`uuid` VARCHAR(46) NOT NULL, " +
                     "`name` VARCHAR(18), " +
@@ -97,6 +94,7 @@ public class SQLConnection implements PlexBase
                     "`note` VARCHAR(2000), " +
                     "`timestamp` BIGINT" +
                     ");").execute();
+            new MigrationRunner().migrate(con);
         }
         catch (SQLException throwables)
         {
@@ -104,23 +102,77 @@ public class SQLConnection implements PlexBase
         }
     }
 
-    private boolean tableExistsSQL(String tableName) throws SQLException
+    /**
+     * SQLite allows a single writer at a time, so the pool is only used for reads. Writes go through one connection
+     * owned by {@link SQLiteWriter}, and WAL journaling lets those reads carry on while it writes.
+     */
+    private void setupSQLite() throws SQLException
+    {
+        String url = "jdbc:sqlite:" + new File(plugin.getDataFolder(), "database.db").getAbsolutePath();
+        Properties pragmas = new Properties();
+        pragmas.setProperty("journal_mode", "WAL");
+        pragmas.setProperty("synchronous", "NORMAL");
+        pragmas.setProperty("cache_size", String.valueOf(-Math.max(1, plugin.config.getInt("data.central.sqlite.cache_size", 8192))));
+        pragmas.setProperty("busy_timeout", "5000");
+
+        dataSource.setJdbcUrl(url);
+        dataSource.setDataSourceProperties(pragmas);
+        // A local file doesn't go stale, so connections are kept for as long as they're idle
+        dataSource.setMaxLifetime(0);
+        dataSource.setMinimumIdle(1);
+        dataSource.setMaximumPoolSize(Math.max(1, plugin.config.getInt("data.central.sqlite.read_pool", 3)));
+
+        this.sqliteWriter = new SQLiteWriter(url, pragmas, plugin.config.getLong("data.central.sqlite.checkpoint_interval", 300));
+    }
+
+    /**
+     * Runs work that writes to the database in a transaction. On SQLite it is queued on the single writer and may be
+     * committed together with other queued writes.
+     *
+     * @param work The work to run
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public <T> T write(SQLWork<T> work) throws SQLException
     {
-        try (Connection connection = getCon())
+        if (sqliteWriter != null)
+        {
+            return sqliteWriter.write(work);
+        }
+        try (Connection con = getCon())
         {
-            PreparedStatement preparedStatement = connection.prepareStatement("SELECT count(*) "
-                    + "FROM information_schema.tables "
-                    + "WHERE table_name = ?"
-                    + "LIMIT 1;");
-            preparedStatement.setString(1, tableName);
+            if (con == null)
+            {
+                throw new SQLException("No database connection is available");
+            }
+            con.setAutoCommit(false);
+            try
+            {
+                T result = work.run(con);
+                con.commit();
+                return result;
+            }
+            catch (SQLException e)
+            {
+                con.rollback();
+                throw e;
+            }
+            finally
+            {
+                con.setAutoCommit(true);
+            }
+        }
+    }
 
-            ResultSet resultSet = preparedStatement.executeQuery();
-            resultSet.next();
-            return resultSet.getInt(1) != 0;
+    public void close()
+    {
+        if (sqliteWriter != null)
+        {
+            sqliteWriter.shutdown();
         }
-        catch (SQLException ignored)
+        if (dataSource != null)
         {
-            return false;
+            dataSource.close();
         }
     }
 
@@ -0,0 +1,15 @@
+package dev.plex.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of database work run on a connection that {@link SQLConnection} hands out
+ *
+ * @param <T> The result of the work
+ */
+@FunctionalInterface
+public interface SQLWork<T>
+{
+    T run(Connection con) throws SQLException;
+}
@@ -0,0 +1,213 @@
+package dev.plex.storage;
+
+import com.google.common.collect.Lists;
+import dev.plex.util.PlexLog;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes every SQLite write onto one thread and one connection. Work queued while a transaction is running is
+ * committed together in the next one, so concurrent writers never fight over the database lock.
+ */
+public class SQLiteWriter
+{
+    /**
+     * Upper bound of queued writes committed in a single transaction
+     */
+    private static final int MAX_BATCH = 256;
+
+    private final Connection connection;
+    private final ScheduledExecutorService executor;
+    private final LinkedBlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private volatile Thread thread;
+
+    public SQLiteWriter(String url, Properties properties, long checkpointInterval) throws SQLException
+    {
+        this.connection = DriverManager.getConnection(url, properties);
+        this.connection.setAutoCommit(false);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "Plex-SQLiteWriter");
+            thread.setDaemon(true);
+            this.thread = thread;
+            return thread;
+        });
+        if (checkpointInterval > 0)
+        {
+            this.executor.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"), checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Runs work on the writer connection and waits for its transaction to commit
+     *
+     * @param work The work to run
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public <T> T write(SQLWork<T> work) throws SQLException
+    {
+        if (Thread.currentThread() == thread)
+        {
+            // Already inside a writer transaction
+            return work.run(connection);
+        }
+        Task<T> task = new Task<>(work, new CompletableFuture<>());
+        queue.add(task);
+        try
+        {
+            executor.execute(this::drain);
+        }
+        catch (RejectedExecutionException e)
+        {
+            queue.remove(task);
+            throw new SQLException("The SQLite writer has been shut down", e);
+        }
+        try
+        {
+            return task.future().get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite writer", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof SQLException sqlException)
+            {
+                throw sqlException;
+            }
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    /**
+     * Checkpoints the write-ahead log, then closes the writer connection once every queued write has committed
+     */
+    public void shutdown()
+    {
+        executor.execute(() -> checkpoint("TRUNCATE"));
+        executor.shutdown();
+        try
+        {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            connection.close();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    public int getQueueDepth()
+    {
+        return queue.size();
+    }
+
+    private void drain()
+    {
+        List<Task<?>> batch = Lists.newArrayList();
+        queue.drainTo(batch, MAX_BATCH);
+        if (batch.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            List<Object> results = Lists.newArrayListWithCapacity(batch.size());
+            for (Task<?> task : batch)
+            {
+                results.add(task.work().run(connection));
+            }
+            connection.commit();
+            for (int i = 0; i < batch.size(); i++)
+            {
+                batch.get(i).complete(results.get(i));
+            }
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            rollback();
+            // Retry one at a time so a single bad write doesn't fail everything it was batched with
+            batch.forEach(this::runAlone);
+        }
+    }
+
+    private void runAlone(Task<?> task)
+    {
+        try
+        {
+            Object result = task.work().run(connection);
+            connection.commit();
+            task.complete(result);
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            rollback();
+            task.future().completeExceptionally(e);
+        }
+    }
+
+    private void rollback()
+    {
+        try
+        {
+            connection.rollback();
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    private void checkpoint(String mode)
+    {
+        try
+        {
+            connection.commit();
+            connection.setAutoCommit(true);
+            connection.prepareStatement("PRAGMA wal_checkpoint(" + mode + ")").execute();
+        }
+        catch (SQLException e)
+        {
+            PlexLog.error("Unable to checkpoint the SQLite write-ahead log");
+            e.printStackTrace();
+        }
+        finally
+        {
+            try
+            {
+                connection.setAutoCommit(false);
+            }
+            catch (SQLException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private record Task<T>(SQLWork<T> work, CompletableFuture<T> future)
+    {
+        @SuppressWarnings("unchecked")
+        private void complete(Object result)
+        {
+            future.complete((T) result);
+        }
+    }
+}
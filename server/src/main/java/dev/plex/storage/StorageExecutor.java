@@ -0,0 +1,213 @@
+package dev.plex.storage;
+
+import dev.plex.PlexBase;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Bounded thread pool for blocking database work, so JDBC calls never land on the common ForkJoin pool. Every task is
+ * named after its query and timed into a latency histogram.
+ */
+public class StorageExecutor implements PlexBase
+{
+    private final ThreadPoolExecutor executor;
+    @Getter
+    private final Map<String, QueryStats> queryStats = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    public StorageExecutor()
+    {
+        int threads = Math.max(1, plugin.config.getInt("data.central.executor.threads", 4));
+        int queueSize = Math.max(1, plugin.config.getInt("data.central.executor.queue_size", 1000));
+        boolean abort = plugin.config.getString("data.central.executor.rejection", "caller-runs").equalsIgnoreCase("abort");
+
+        AtomicInteger counter = new AtomicInteger();
+        RejectedExecutionHandler handler = (runnable, pool) ->
+        {
+            // Work submitted after shutdown still runs so nothing is lost while the plugin disables
+            if (abort && !pool.isShutdown())
+            {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("The storage queue is full");
+            }
+            callerRuns.incrementAndGet();
+            runnable.run();
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), runnable ->
+        {
+            Thread thread = new Thread(runnable, "Plex-Storage-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, handler);
+    }
+
+    /**
+     * Runs a query on the storage pool
+     *
+     * @param query    The name the query's latency is recorded under
+     * @param supplier The blocking work
+     * @return a future completed with the result of the work
+     */
+    public <T> CompletableFuture<T> supply(String query, Supplier<T> supplier)
+    {
+        QueryStats stats = queryStats.computeIfAbsent(query, key -> new QueryStats());
+        try
+        {
+            return CompletableFuture.supplyAsync(() ->
+            {
+                long start = System.nanoTime();
+                try
+                {
+                    return supplier.get();
+                }
+                finally
+                {
+                    stats.record(System.nanoTime() - start);
+                }
+            }, executor);
+        }
+        catch (RejectedExecutionException e)
+        {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a query on the storage pool
+     *
+     * @param query    The name the query's latency is recorded under
+     * @param runnable The blocking work
+     * @return a future completed once the work is done
+     */
+    public CompletableFuture<Void> run(String query, Runnable runnable)
+    {
+        return supply(query, () ->
+        {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting work and waits for queued work to finish
+     */
+    public void shutdown()
+    {
+        executor.shutdown();
+        try
+        {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPoolSize()
+    {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount()
+    {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount()
+    {
+        return executor.getQueue().size();
+    }
+
+    public long getCompletedCount()
+    {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount()
+    {
+        return rejected.get();
+    }
+
+    public long getCallerRunsCount()
+    {
+        return callerRuns.get();
+    }
+
+    /**
+     * Latency histogram of one query. Buckets are fixed so recording is a couple of atomic increments.
+     */
+    public static class QueryStats
+    {
+        private static final long[] BUCKET_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MILLIS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos)
+        {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_MILLIS.length && millis >= BUCKET_MILLIS[bucket])
+            {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount()
+        {
+            return count.get();
+        }
+
+        public double getAverageMillis()
+        {
+            long count = this.count.get();
+            return count == 0 ? 0 : totalNanos.get() / 1_000_000D / count;
+        }
+
+        public double getMaxMillis()
+        {
+            return maxNanos.get() / 1_000_000D;
+        }
+
+        /**
+         * Gets the upper bound of the bucket a percentile falls in
+         *
+         * @param percentile The percentile, between 0 and 1
+         * @return the bucket bound in milliseconds, or -1 if it falls past the last bucket
+         */
+        public long getPercentileMillis(double percentile)
+        {
+            long target = (long) Math.ceil(count.get() * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_MILLIS.length; i++)
+            {
+                seen += buckets.get(i);
+                if (seen >= target)
+                {
+                    return BUCKET_MILLIS[i];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dev.plex.storage.migration;
+
+import dev.plex.storage.StorageType;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A single ordered step of the database schema
+ */
+public interface Migration
+{
+    /**
+     * The schema version this migration brings the database to. Versions must be unique and increasing.
+     */
+    int version();
+
+    String description();
+
+    /**
+     * Applies the migration
+     *
+     * @param con  The connection to run the migration on
+     * @param type The storage type so dialect specific SQL can be chosen
+     * @throws SQLException if the migration fails, in which case the version is not recorded
+     */
+    void migrate(Connection con, StorageType type) throws SQLException;
+}
@@ -0,0 +1,87 @@
+package dev.plex.storage.migration;
+
+import com.google.common.collect.Lists;
+import dev.plex.Plex;
+import dev.plex.storage.migration.impl.IndexMigration;
+import dev.plex.storage.migration.impl.PlayerIpMigration;
+import dev.plex.storage.migration.impl.SurrogateKeyMigration;
+import dev.plex.util.PlexLog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies every {@link Migration} newer than the version recorded in the schema_version table
+ */
+public class MigrationRunner
+{
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS `schema_version` (" +
+            "`version` INT NOT NULL, " +
+            "`description` VARCHAR(255), " +
+            "`applied` BIGINT, " +
+            "PRIMARY KEY (`version`));";
+    private static final String SELECT_VERSION = "SELECT MAX(`version`) FROM `schema_version`";
+    private static final String INSERT_VERSION = "INSERT INTO `schema_version` (`version`, `description`, `applied`) VALUES (?, ?, ?)";
+
+    private final List<Migration> migrations = Lists.newArrayList();
+
+    public MigrationRunner()
+    {
+        registerMigration(new IndexMigration());
+        registerMigration(new SurrogateKeyMigration());
+        registerMigration(new PlayerIpMigration());
+        migrations.sort(Comparator.comparingInt(Migration::version));
+    }
+
+    public void migrate(Connection con) throws SQLException
+    {
+        con.prepareStatement(CREATE_VERSION_TABLE).execute();
+        int current = getVersion(con);
+        for (Migration migration : migrations)
+        {
+            if (migration.version() <= current)
+            {
+                continue;
+            }
+            PlexLog.log("Migrating database to version {0}: {1}", migration.version(), migration.description());
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try
+            {
+                migration.migrate(con, Plex.get().getStorageType());
+                PreparedStatement statement = con.prepareStatement(INSERT_VERSION);
+                statement.setInt(1, migration.version());
+                statement.setString(2, migration.description());
+                statement.setLong(3, System.currentTimeMillis());
+                statement.executeUpdate();
+                con.commit();
+            }
+            catch (SQLException e)
+            {
+                con.rollback();
+                PlexLog.error("Failed to migrate the database to version {0}, stopping at version {1}", migration.version(), current);
+                throw e;
+            }
+            finally
+            {
+                con.setAutoCommit(autoCommit);
+            }
+            current = migration.version();
+        }
+    }
+
+    private int getVersion(Connection con) throws SQLException
+    {
+        ResultSet set = con.prepareStatement(SELECT_VERSION).executeQuery();
+        return set.next() ? set.getInt(1) : 0;
+    }
+
+    private void registerMigration(Migration migration)
+    {
+        migrations.add(migration);
+    }
+}
@@ -0,0 +1,37 @@
+package dev.plex.storage.migration.impl;
+
+import dev.plex.storage.StorageType;
+import dev.plex.storage.migration.Migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Adds the secondary indexes used by the player, punishment and note lookups
+ */
+public class IndexMigration implements Migration
+{
+    @Override
+    public int version()
+    {
+        return 2;
+    }
+
+    @Override
+    public String description()
+    {
+        return "Add indexes for player, punishment and note lookups";
+    }
+
+    @Override
+    public void migrate(Connection con, StorageType type) throws SQLException
+    {
+        // MariaDB can't index a whole VARCHAR(2000) column, an IP address fits in the first 64 characters
+        String ipColumn = type == StorageType.MARIADB ? "`ip`(64)" : "`ip`";
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_players_name` ON `players` (`name`)").execute();
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_punishments_punished` ON `punishments` (`punished`, `type`)").execute();
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_punishments_ip` ON `punishments` (" + ipColumn + ")").execute();
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_punishments_punisher` ON `punishments` (`punisher`)").execute();
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_notes_uuid` ON `notes` (`uuid`)").execute();
+    }
+}
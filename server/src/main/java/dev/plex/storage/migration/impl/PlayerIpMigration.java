@@ -0,0 +1,81 @@
+package dev.plex.storage.migration.impl;
+
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import dev.plex.storage.StorageType;
+import dev.plex.storage.migration.Migration;
+import dev.plex.util.PlexLog;
+
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Moves player IP addresses out of the JSON `ips` column into an indexed player_ips table
+ */
+public class PlayerIpMigration implements Migration
+{
+    private static final Type IP_LIST_TYPE = new TypeToken<List<String>>()
+    {
+    }.getType();
+
+    @Override
+    public int version()
+    {
+        return 3;
+    }
+
+    @Override
+    public String description()
+    {
+        return "Move player IP addresses into the player_ips table";
+    }
+
+    @Override
+    public void migrate(Connection con, StorageType type) throws SQLException
+    {
+        con.prepareStatement("CREATE TABLE IF NOT EXISTS `player_ips` (" +
+                "`uuid` VARCHAR(46) NOT NULL, " +
+                "`ip` VARCHAR(64) NOT NULL, " +
+                "`first_seen` BIGINT, " +
+                "`last_seen` BIGINT, " +
+                "PRIMARY KEY (`uuid`, `ip`));").execute();
+        con.prepareStatement("CREATE INDEX IF NOT EXISTS `idx_player_ips_ip` ON `player_ips` (`ip`)").execute();
+
+        Gson gson = new Gson();
+        long now = System.currentTimeMillis();
+        int rows = 0;
+        ResultSet set = con.prepareStatement("SELECT `uuid`, `ips` FROM `players`").executeQuery();
+        try (PreparedStatement insert = con.prepareStatement("INSERT INTO `player_ips` (`uuid`, `ip`, `first_seen`, `last_seen`) VALUES (?, ?, ?, ?)"))
+        {
+            while (set.next())
+            {
+                List<String> ips = gson.fromJson(set.getString("ips"), IP_LIST_TYPE);
+                if (ips == null)
+                {
+                    continue;
+                }
+                // Keep the order of the JSON list, the last entry was the most recently added address
+                List<String> distinct = ips.stream().map(String::trim).filter(ip -> !ip.isEmpty()).distinct().toList();
+                for (int i = 0; i < distinct.size(); i++)
+                {
+                    long seen = now - (distinct.size() - i);
+                    insert.setString(1, set.getString("uuid"));
+                    insert.setString(2, distinct.get(i));
+                    insert.setLong(3, seen);
+                    insert.setLong(4, seen);
+                    insert.addBatch();
+                    if (++rows % 1000 == 0)
+                    {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        PlexLog.log("Copied {0} player IP address(es) into player_ips", rows);
+    }
+}
@@ -0,0 +1,87 @@
+package dev.plex.storage.migration.impl;
+
+import dev.plex.storage.StorageType;
+import dev.plex.storage.migration.Migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Gives punishments and notes an auto incrementing primary key. Note that notes already use their `id` column as a
+ * per player counter, so their key is called `note_id`.
+ */
+public class SurrogateKeyMigration implements Migration
+{
+    private static final String PUNISHMENT_COLUMNS = "`punished`, `punisher`, `punishedUsername`, `ip`, `type`, `reason`, `customTime`, `active`, `endDate`";
+    private static final String NOTE_COLUMNS = "`id`, `uuid`, `written_by`, `note`, `timestamp`";
+
+    @Override
+    public int version()
+    {
+        return 1;
+    }
+
+    @Override
+    public String description()
+    {
+        return "Add surrogate primary keys to punishments and notes";
+    }
+
+    @Override
+    public void migrate(Connection con, StorageType type) throws SQLException
+    {
+        if (type == StorageType.MARIADB)
+        {
+            // DDL commits on its own in MariaDB, so a failed run can leave one key added without the version being recorded
+            if (!hasColumn(con, "punishments", "id"))
+            {
+                con.prepareStatement("ALTER TABLE `punishments` ADD COLUMN `id` BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST").execute();
+            }
+            if (!hasColumn(con, "notes", "note_id"))
+            {
+                con.prepareStatement("ALTER TABLE `notes` ADD COLUMN `note_id` BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST").execute();
+            }
+            return;
+        }
+
+        // SQLite can't add a primary key to an existing table, so the tables are rebuilt
+        con.prepareStatement("CREATE TABLE `punishments_new` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "`punished` VARCHAR(46) NOT NULL, " +
+                "`punisher` VARCHAR(46), " +
+                "`punishedUsername` VARCHAR(16), " +
+                "`ip` VARCHAR(2000), " +
+                "`type` VARCHAR(30), " +
+                "`reason` VARCHAR(2000), " +
+                "`customTime` BOOLEAN, " +
+                "`active` BOOLEAN, " +
+                "`endDate` BIGINT" +
+                ");").execute();
+        con.prepareStatement("INSERT INTO `punishments_new` (" + PUNISHMENT_COLUMNS + ") SELECT " + PUNISHMENT_COLUMNS + " FROM `punishments`").execute();
+        con.prepareStatement("DROP TABLE `punishments`").execute();
+        con.prepareStatement("ALTER TABLE `punishments_new` RENAME TO `punishments`").execute();
+
+        con.prepareStatement("CREATE TABLE `notes_new` (" +
+                "`note_id` INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "`id` INT NOT NULL, " +
+                "`uuid` VARCHAR(46) NOT NULL, " +
+                "`written_by` VARCHAR(46), " +
+                "`note` VARCHAR(2000), " +
+                "`timestamp` BIGINT" +
+                ");").execute();
+        con.prepareStatement("INSERT INTO `notes_new` (" + NOTE_COLUMNS + ") SELECT " + NOTE_COLUMNS + " FROM `notes`").execute();
+        con.prepareStatement("DROP TABLE `notes`").execute();
+        con.prepareStatement("ALTER TABLE `notes_new` RENAME TO `notes`").execute();
+    }
+
+    private boolean hasColumn(Connection con, String table, String column) throws SQLException
+    {
+        PreparedStatement statement = con.prepareStatement("SELECT COUNT(*) FROM `information_schema`.`COLUMNS` WHERE `TABLE_SCHEMA`=DATABASE() AND `TABLE_NAME`=? AND `COLUMN_NAME`=?");
+        statement.setString(1, table);
+        statement.setString(2, column);
+        ResultSet set = statement.executeQuery();
+        return set.next() && set.getInt(1) > 0;
+    }
+}
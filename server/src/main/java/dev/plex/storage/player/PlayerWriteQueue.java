@@ -0,0 +1,220 @@
+package dev.plex.storage.player;
+
+import com.google.common.collect.Lists;
+import dev.plex.Plex;
+import dev.plex.player.PlexPlayer;
+import dev.plex.util.PlexLog;
+import lombok.Getter;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for player updates. Pending updates are merged per UUID and flushed as one JDBC batch on a
+ * dedicated thread. Each update holds a copy of the player taken when it was queued, which is what gets written, so
+ * the writer never reads a player while another thread changes it.
+ */
+public class PlayerWriteQueue
+{
+    private final Map<UUID, Update> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final Object flushLock = new Object();
+
+    @Getter
+    private final boolean enabled;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong mergedUpdates = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    public PlayerWriteQueue()
+    {
+        this.enabled = Plex.get().config.getBoolean("data.central.write_behind.enabled", true);
+        long interval = Math.max(50L, Plex.get().config.getLong("data.central.write_behind.interval", 2000L));
+        if (!enabled)
+        {
+            this.executor = null;
+            return;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "Plex-PlayerWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a player to be written on the next flush. Queuing the same player again before the flush merges into a
+     * single row update.
+     *
+     * @param player The PlexPlayer object
+     */
+    public void enqueue(PlexPlayer player)
+    {
+        if (player == null)
+        {
+            return;
+        }
+        if (!enabled)
+        {
+            Plex.get().getSqlPlayerData().update(player);
+            return;
+        }
+        if (pending.put(player.getUuid(), new Update(player, player.snapshot())) != null)
+        {
+            mergedUpdates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets a player that is waiting to be written, so readers never observe an older database row
+     *
+     * @param uuid The unique ID of the player
+     * @return the pending PlexPlayer object, or null if none is queued
+     */
+    public PlexPlayer getPending(UUID uuid)
+    {
+        Update update = pending.get(uuid);
+        return update == null ? null : update.player();
+    }
+
+    /**
+     * Writes every pending update as one batch
+     */
+    public void flush()
+    {
+        tryFlush();
+    }
+
+    /**
+     * Writes every pending update as one batch. Updates stay pending until the batch has committed, so readers keep
+     * finding them instead of an older database row while the batch is being written.
+     *
+     * @return false if the batch failed and the updates are still pending
+     */
+    private boolean tryFlush()
+    {
+        synchronized (flushLock)
+        {
+            if (pending.isEmpty())
+            {
+                return true;
+            }
+            List<Map.Entry<UUID, Update>> snapshot = Lists.newArrayList(Map.copyOf(pending).entrySet());
+            List<PlexPlayer> batch = Lists.newArrayListWithCapacity(snapshot.size());
+            snapshot.forEach(entry -> batch.add(entry.getValue().row()));
+
+            long start = System.nanoTime();
+            try
+            {
+                Plex.get().getSqlConnection().write(con ->
+                {
+                    Plex.get().getSqlPlayerData().saveBatch(con, batch);
+                    return null;
+                });
+            }
+            catch (SQLException e)
+            {
+                PlexLog.error("Failed to flush {0} queued player update(s), keeping them queued", batch.size());
+                e.printStackTrace();
+                return false;
+            }
+            // Only forget updates that weren't replaced by a newer one while the batch was written, every enqueue is a
+            // new Update even for the same player object
+            snapshot.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+
+            long elapsed = System.nanoTime() - start;
+            lastFlushNanos = elapsed;
+            maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+            totalFlushNanos.addAndGet(elapsed);
+            flushes.incrementAndGet();
+            flushedRows.addAndGet(batch.size());
+            PlexLog.debug("Flushed {0} player update(s) in {1}ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return true;
+        }
+    }
+
+    /**
+     * Stops the writer thread and drains every pending update on the calling thread. A failed drain is retried once,
+     * and every update that still couldn't be written is logged.
+     */
+    public void shutdown()
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+            try
+            {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (tryFlush() || tryFlush())
+        {
+            return;
+        }
+        PlexLog.error("Dropping {0} player update(s) that could not be written on shutdown", pending.size());
+        pending.values().forEach(update -> PlexLog.error("Unsaved player update: {0} ({1})", update.row().getName(), update.row().getUuid()));
+    }
+
+    public int getQueueDepth()
+    {
+        return pending.size();
+    }
+
+    public long getFlushCount()
+    {
+        return flushes.get();
+    }
+
+    public long getFlushedRows()
+    {
+        return flushedRows.get();
+    }
+
+    public long getMergedUpdates()
+    {
+        return mergedUpdates.get();
+    }
+
+    public double getLastFlushMillis()
+    {
+        return lastFlushNanos / 1_000_000D;
+    }
+
+    public double getMaxFlushMillis()
+    {
+        return maxFlushNanos / 1_000_000D;
+    }
+
+    public double getAverageFlushMillis()
+    {
+        long count = flushes.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000_000D / count;
+    }
+
+    /**
+     * A queued update
+     *
+     * @param player The live player, handed to readers until the update is written
+     * @param row    The copy of the player taken when it was queued, which is what gets written
+     */
+    private record Update(PlexPlayer player, PlexPlayer row)
+    {
+    }
+}
@@ -1,27 +1,46 @@
 package dev.plex.storage.player;
 
-import com.google.common.reflect.TypeToken;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import dev.plex.Plex;
 import dev.plex.player.PlexPlayer;
+import dev.plex.punishment.Punishment;
 import dev.plex.storage.StorageType;
-import dev.plex.util.PlexLog;
+import dev.plex.util.sql.RowMapper;
+import dev.plex.util.sql.SQLUtil;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * SQL fetching utilities for players
  */
 public class SQLPlayerData
 {
+    private static final RowMapper<PlexPlayer> MAPPER = SQLUtil.getMapper(PlexPlayer.class);
+
+    /**
+     * The most values bound to one IN clause, well below SQLite's limit of bound parameters
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
     private final String SELECT = "SELECT * FROM `players` WHERE uuid=?";
-    private final String UPDATE = "UPDATE `players` SET name=?, login_msg=?, prefix=?, ips=?, coins=?, vanished=?, commandspy=? WHERE uuid=?";
-    private final String INSERT = "INSERT INTO `players` (`uuid`, `name`, `login_msg`, `prefix`, `ips`, `coins`, `vanished`, `commandspy`) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+    private final String SELECT_IPS = "SELECT `ip` FROM `player_ips` WHERE uuid=? ORDER BY first_seen";
+    private final String SELECT_BY_IP = "SELECT p.* FROM `player_ips` i JOIN `players` p ON p.uuid = i.uuid WHERE i.ip=? ORDER BY i.last_seen DESC";
+    private final String SELECT_ALTS = "SELECT DISTINCT b.uuid FROM `player_ips` a JOIN `player_ips` b ON a.ip = b.ip WHERE a.uuid=? AND b.uuid<>?";
+    private final String INSERT_IP = "INSERT INTO `player_ips` (`uuid`, `ip`, `first_seen`, `last_seen`) VALUES (?, ?, ?, ?)";
+    private final String UPDATE_LEGACY_IPS = "UPDATE `players` SET `ips`=? WHERE uuid=?";
+
+    private final Gson gson = new Gson();
 
     /**
      * Checks if a player exists in the SQL database
@@ -70,43 +89,47 @@ public class SQLPlayerData
      */
     public PlexPlayer getByUUID(UUID uuid, boolean loadExtraData)
     {
-        if (Plex.get().getPlayerCache().getPlexPlayerMap().containsKey(uuid))
+        PlexPlayer cached = Plex.get().getPlayerCache().getPlexPlayer(uuid);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        try
+        {
+            PlexPlayer plexPlayer = find(uuid, loadExtraData);
+            return plexPlayer != null ? plexPlayer : new PlexPlayer(uuid, loadExtraData);
+        }
+        catch (SQLException throwables)
         {
-            return Plex.get().getPlayerCache().getPlexPlayerMap().get(uuid);
+            throwables.printStackTrace();
         }
+        return null;
+    }
 
+    /**
+     * Loads a player from the SQL database only
+     *
+     * @param uuid          The unique ID of the player
+     * @param loadExtraData Whether to load the player's punishments
+     * @return a PlexPlayer object, or null if the player has no database entry
+     * @throws SQLException if the lookup fails
+     */
+    public PlexPlayer find(UUID uuid, boolean loadExtraData) throws SQLException
+    {
         try (Connection con = Plex.get().getSqlConnection().getCon())
         {
             PreparedStatement statement = con.prepareStatement(SELECT);
             statement.setString(1, uuid.toString());
-            ResultSet set = statement.executeQuery();
-            PlexPlayer plexPlayer = new PlexPlayer(uuid, loadExtraData);
-            while (set.next())
+            PlexPlayer plexPlayer = MAPPER.mapOne(statement.executeQuery());
+            if (plexPlayer == null)
             {
-                String name = set.getString("name");
-                String loginMSG = set.getString("login_msg");
-                String prefix = set.getString("prefix");
-                long coins = set.getLong("coins");
-                boolean vanished = set.getBoolean("vanished");
-                boolean commandspy = set.getBoolean("commandspy");
-                List<String> ips = new Gson().fromJson(set.getString("ips"), new TypeToken<List<String>>()
-                {
-                }.getType());
-                plexPlayer.setName(name);
-                plexPlayer.setLoginMessage(loginMSG);
-                plexPlayer.setPrefix(prefix);
-                plexPlayer.setIps(ips);
-                plexPlayer.setCoins(coins);
-                plexPlayer.setVanished(vanished);
-                plexPlayer.setCommandSpy(commandspy);
+                return null;
             }
+            plexPlayer.setIps(loadIps(con, uuid));
+            loadExtraData(plexPlayer, loadExtraData);
             return plexPlayer;
         }
-        catch (SQLException throwables)
-        {
-            throwables.printStackTrace();
-        }
-        return null;
     }
 
 
@@ -119,9 +142,10 @@ public class SQLPlayerData
      */
     public String getNameByUUID(UUID uuid)
     {
-        if (Plex.get().getPlayerCache().getPlexPlayerMap().containsKey(uuid))
+        PlexPlayer cached = Plex.get().getPlayerCache().getPlexPlayer(uuid);
+        if (cached != null)
         {
-            return Plex.get().getPlayerCache().getPlexPlayerMap().get(uuid).getName();
+            return cached.getName();
         }
 
         try (Connection con = Plex.get().getSqlConnection().getCon())
@@ -148,7 +172,7 @@ public class SQLPlayerData
 
     public PlexPlayer getByName(String username, boolean loadExtraData)
     {
-        PlexPlayer player = Plex.get().getPlayerCache().getPlexPlayerMap().values().stream().filter(plexPlayer -> plexPlayer.getName().equalsIgnoreCase(username)).findFirst().orElse(null);
+        PlexPlayer player = Plex.get().getPlayerCache().getByName(username);
         if (player != null)
         {
             return player;
@@ -157,28 +181,14 @@ public class SQLPlayerData
         {
             PreparedStatement statement = con.prepareStatement("SELECT * FROM `players` WHERE name=? LIMIT 1");
             statement.setString(1, username);
-            ResultSet set = statement.executeQuery();
-            while (set.next())
+            PlexPlayer plexPlayer = MAPPER.mapOne(statement.executeQuery());
+            if (plexPlayer == null)
             {
-                PlexPlayer plexPlayer = new PlexPlayer(UUID.fromString(set.getString("uuid")), loadExtraData);
-                String loginMSG = set.getString("login_msg");
-                String prefix = set.getString("prefix");
-                long coins = set.getLong("coins");
-                boolean vanished = set.getBoolean("vanished");
-                boolean commandspy = set.getBoolean("commandspy");
-                List<String> ips = new Gson().fromJson(set.getString("ips"), new TypeToken<List<String>>()
-                {
-                }.getType());
-                plexPlayer.setName(username);
-                plexPlayer.setLoginMessage(loginMSG);
-                plexPlayer.setPrefix(prefix);
-                plexPlayer.setIps(ips);
-                plexPlayer.setCoins(coins);
-                plexPlayer.setVanished(vanished);
-                plexPlayer.setCommandSpy(commandspy);
-                return plexPlayer;
+                return null;
             }
-            return null;
+            plexPlayer.setIps(loadIps(con, plexPlayer.getUuid()));
+            loadExtraData(plexPlayer, loadExtraData);
+            return plexPlayer;
         }
         catch (SQLException throwables)
         {
@@ -201,93 +211,202 @@ public class SQLPlayerData
      */
     public PlexPlayer getByIP(String ip)
     {
-        PlexPlayer player = Plex.get().getPlayerCache().getPlexPlayerMap().values().stream().filter(plexPlayer -> plexPlayer.getIps().contains(ip)).findFirst().orElse(null);
+        PlexPlayer player = Plex.get().getPlayerCache().getByIP(ip);
         if (player != null)
         {
             return player;
         }
+        List<PlexPlayer> players = getPlayersByIP(ip, false);
+        if (players.isEmpty())
+        {
+            return null;
+        }
+        loadExtraData(players.get(0), true);
+        return players.get(0);
+    }
 
-        if (Plex.get().getStorageType() == StorageType.MARIADB)
+    /**
+     * Gets every player who has joined from an IP address, most recently seen first
+     *
+     * @param ip The IP address
+     * @return a list of PlexPlayer objects
+     * @see PlexPlayer
+     */
+    public List<PlexPlayer> getPlayersByIP(String ip)
+    {
+        return getPlayersByIP(ip, true);
+    }
+
+    /**
+     * Gets every player who has joined from an IP address, most recently seen first. The IPs and punishments of all
+     * the players are each loaded with one query rather than one per player.
+     *
+     * @param ip            The IP address
+     * @param loadExtraData Whether to load the players' punishments
+     * @return a list of PlexPlayer objects
+     * @see PlexPlayer
+     */
+    public List<PlexPlayer> getPlayersByIP(String ip, boolean loadExtraData)
+    {
+        List<PlexPlayer> players = Lists.newArrayList();
+        try (Connection con = Plex.get().getSqlConnection().getCon())
         {
-            try (Connection con = Plex.get().getSqlConnection().getCon())
+            PreparedStatement statement = con.prepareStatement(SELECT_BY_IP);
+            statement.setString(1, ip);
+            players.addAll(MAPPER.mapAll(statement.executeQuery()));
+            if (players.isEmpty())
             {
-                PreparedStatement statement = con.prepareStatement("select * from `players` where json_search(ips, ?, ?) IS NOT NULL LIMIT 1");
-                statement.setString(1, "one");
-                statement.setString(2, ip);
-                ResultSet set = statement.executeQuery();
-
-                PlexPlayer plexPlayer = null;
-                while (set.next())
+                return players;
+            }
+            Map<UUID, PlexPlayer> byUuid = players.stream().collect(Collectors.toMap(PlexPlayer::getUuid, player -> player, (first, second) -> first, LinkedHashMap::new));
+            Map<UUID, List<String>> ips = loadIps(con, byUuid.keySet());
+            byUuid.forEach((uuid, player) -> player.setIps(ips.getOrDefault(uuid, Lists.newArrayList())));
+            if (loadExtraData)
+            {
+                Map<UUID, List<Punishment>> punishments = Plex.get().getSqlPunishment().getPunishments(byUuid.keySet()).stream().collect(Collectors.groupingBy(Punishment::getPunished));
+                byUuid.forEach((uuid, player) ->
                 {
-                    String uuid = set.getString("uuid");
-                    String name = set.getString("name");
-                    String loginMSG = set.getString("login_msg");
-                    String prefix = set.getString("prefix");
-                    long coins = set.getLong("coins");
-                    boolean vanished = set.getBoolean("vanished");
-                    boolean commandspy = set.getBoolean("commandspy");
-                    List<String> ips = new Gson().fromJson(set.getString("ips"), new TypeToken<List<String>>()
-                    {
-                    }.getType());
-                    plexPlayer = new PlexPlayer(UUID.fromString(uuid));
-                    plexPlayer.setName(name);
-                    plexPlayer.setLoginMessage(loginMSG);
-                    plexPlayer.setPrefix(prefix);
-                    plexPlayer.setIps(ips);
-                    plexPlayer.setCoins(coins);
-                    plexPlayer.setVanished(vanished);
-                    plexPlayer.setCommandSpy(commandspy);
-                }
-                return plexPlayer;
+                    player.setPunishments(Lists.newArrayList(punishments.getOrDefault(uuid, List.of())));
+                    player.checkMutesAndFreeze();
+                });
             }
-            catch (SQLException throwables)
+        }
+        catch (SQLException throwables)
+        {
+            throwables.printStackTrace();
+        }
+        return players;
+    }
+
+    /**
+     * Gets the unique IDs of every other player who has shared an IP address with a player
+     *
+     * @param uuid The unique ID of the player
+     * @return a list of unique IDs
+     */
+    public List<UUID> getAlts(UUID uuid)
+    {
+        List<UUID> alts = Lists.newArrayList();
+        try (Connection con = Plex.get().getSqlConnection().getCon())
+        {
+            PreparedStatement statement = con.prepareStatement(SELECT_ALTS);
+            statement.setString(1, uuid.toString());
+            statement.setString(2, uuid.toString());
+            ResultSet set = statement.executeQuery();
+            while (set.next())
             {
-                throwables.printStackTrace();
+                alts.add(UUID.fromString(set.getString("uuid")));
             }
         }
-        else if (Plex.get().getStorageType() == StorageType.SQLITE)
+        catch (SQLException throwables)
+        {
+            throwables.printStackTrace();
+        }
+        return alts;
+    }
+
+    /**
+     * Records that a player was seen on an IP address
+     *
+     * @param uuid The unique ID of the player
+     * @param ip   The IP address
+     */
+    public void touchIp(UUID uuid, String ip)
+    {
+        try
+        {
+            Plex.get().getSqlConnection().write(con ->
+            {
+                long now = System.currentTimeMillis();
+                PreparedStatement statement = con.prepareStatement(upsertIp(true));
+                statement.setString(1, uuid.toString());
+                statement.setString(2, ip);
+                statement.setLong(3, now);
+                statement.setLong(4, now);
+                return statement.executeUpdate();
+            });
+        }
+        catch (SQLException throwables)
+        {
+            throwables.printStackTrace();
+        }
+    }
+
+    private void loadExtraData(PlexPlayer plexPlayer, boolean loadExtraData)
+    {
+        if (loadExtraData)
+        {
+            plexPlayer.loadPunishments();
+            plexPlayer.checkMutesAndFreeze();
+        }
+    }
+
+    private List<String> loadIps(Connection con, UUID uuid) throws SQLException
+    {
+        List<String> ips = Lists.newArrayList();
+        PreparedStatement statement = con.prepareStatement(SELECT_IPS);
+        statement.setString(1, uuid.toString());
+        ResultSet set = statement.executeQuery();
+        while (set.next())
+        {
+            ips.add(set.getString("ip"));
+        }
+        return ips;
+    }
+
+    private Map<UUID, List<String>> loadIps(Connection con, Collection<UUID> uuids) throws SQLException
+    {
+        Map<UUID, List<String>> ips = Maps.newHashMap();
+        for (List<UUID> chunk : Lists.partition(List.copyOf(uuids), IN_CHUNK_SIZE))
         {
-            PlexLog.warn("Querying a user by IP running SQLite can cause performance issues! Please try to switch to a remote DB ASAP!");
-            try (Connection con = Plex.get().getSqlConnection().getCon())
+            PreparedStatement statement = con.prepareStatement("SELECT `uuid`, `ip` FROM `player_ips` WHERE uuid IN (" + SQLUtil.placeholders(chunk.size()) + ") ORDER BY first_seen");
+            for (int i = 0; i < chunk.size(); i++)
+            {
+                statement.setString(i + 1, chunk.get(i).toString());
+            }
+            ResultSet set = statement.executeQuery();
+            while (set.next())
             {
-                PreparedStatement statement = con.prepareStatement("select * from `players`");
-                ResultSet set = statement.executeQuery();
+                ips.computeIfAbsent(UUID.fromString(set.getString("uuid")), key -> Lists.newArrayList()).add(set.getString("ip"));
+            }
+        }
+        return ips;
+    }
 
-                PlexPlayer plexPlayer = null;
-                while (set.next())
+    /**
+     * Adds any IP addresses of the players that are missing from the player_ips table
+     */
+    private void writeIps(Connection con, List<PlexPlayer> players) throws SQLException
+    {
+        try (PreparedStatement statement = con.prepareStatement(upsertIp(false)))
+        {
+            long now = System.currentTimeMillis();
+            for (PlexPlayer player : players)
+            {
+                if (player.getIps() == null)
                 {
-                    List<String> ips = new Gson().fromJson(set.getString("ips"), new TypeToken<List<String>>()
-                    {
-                    }.getType());
-                    if (!ips.contains(ip))
-                    {
-                        continue;
-                    }
-                    String uuid = set.getString("uuid");
-                    String name = set.getString("name");
-                    String loginMSG = set.getString("login_msg");
-                    String prefix = set.getString("prefix");
-                    long coins = set.getLong("coins");
-                    boolean vanished = set.getBoolean("vanished");
-                    boolean commandspy = set.getBoolean("commandspy");
-
-                    plexPlayer = new PlexPlayer(UUID.fromString(uuid));
-                    plexPlayer.setName(name);
-                    plexPlayer.setLoginMessage(loginMSG);
-                    plexPlayer.setPrefix(prefix);
-                    plexPlayer.setIps(ips);
-                    plexPlayer.setCoins(coins);
-                    plexPlayer.setVanished(vanished);
-                    plexPlayer.setCommandSpy(commandspy);
+                    continue;
+                }
+                for (String ip : player.getIps())
+                {
+                    statement.setString(1, player.getUuid().toString());
+                    statement.setString(2, ip);
+                    statement.setLong(3, now);
+                    statement.setLong(4, now);
+                    statement.addBatch();
                 }
-                return plexPlayer;
-            }
-            catch (SQLException throwables)
-            {
-                throwables.printStackTrace();
             }
+            statement.executeBatch();
         }
-        return null;
+    }
+
+    private String upsertIp(boolean touch)
+    {
+        if (Plex.get().getStorageType() == StorageType.MARIADB)
+        {
+            return touch ? INSERT_IP + " ON DUPLICATE KEY UPDATE `last_seen`=VALUES(`last_seen`)" : "INSERT IGNORE" + INSERT_IP.substring("INSERT".length());
+        }
+        return INSERT_IP + (touch ? " ON CONFLICT (`uuid`, `ip`) DO UPDATE SET `last_seen`=excluded.`last_seen`" : " ON CONFLICT (`uuid`, `ip`) DO NOTHING");
     }
 
     /**
@@ -298,23 +417,7 @@ public class SQLPlayerData
      */
     public void update(PlexPlayer player)
     {
-        try (Connection con = Plex.get().getSqlConnection().getCon())
-        {
-            PreparedStatement statement = con.prepareStatement(UPDATE);
-            statement.setString(1, player.getName());
-            statement.setString(2, player.getLoginMessage());
-            statement.setString(3, player.getPrefix());
-            statement.setString(4, new Gson().toJson(player.getIps()));
-            statement.setLong(5, player.getCoins());
-            statement.setBoolean(6, player.isVanished());
-            statement.setBoolean(7, player.isCommandSpy());
-            statement.setString(8, player.getUuid().toString());
-            statement.executeUpdate();
-        }
-        catch (SQLException throwables)
-        {
-            throwables.printStackTrace();
-        }
+        save(player);
     }
 
     /**
@@ -325,22 +428,61 @@ public class SQLPlayerData
      */
     public void insert(PlexPlayer player)
     {
-        try (Connection con = Plex.get().getSqlConnection().getCon())
+        save(player);
+    }
+
+    /**
+     * Inserts or updates a player's information in one round trip
+     *
+     * @param player The PlexPlayer object
+     * @see PlexPlayer
+     */
+    public void save(PlexPlayer player)
+    {
+        try
         {
-            PreparedStatement statement = con.prepareStatement(INSERT);
-            statement.setString(1, player.getUuid().toString());
-            statement.setString(2, player.getName());
-            statement.setString(3, player.getLoginMessage());
-            statement.setString(4, player.getPrefix());
-            statement.setString(5, new Gson().toJson(player.getIps()));
-            statement.setLong(6, player.getCoins());
-            statement.setBoolean(7, player.isVanished());
-            statement.setBoolean(8, player.isCommandSpy());
-            statement.execute();
+            Plex.get().getSqlConnection().write(con ->
+            {
+                saveBatch(con, List.of(player));
+                return null;
+            });
         }
         catch (SQLException throwables)
         {
             throwables.printStackTrace();
         }
     }
+
+    /**
+     * Inserts or updates several players' information as one JDBC batch on the given connection. Punishments and
+     * notes are written by their own tables and are not rewritten here.
+     *
+     * @param con     The connection to run the batch on
+     * @param players The PlexPlayer objects
+     * @throws SQLException if the batch fails
+     */
+    public void saveBatch(Connection con, List<PlexPlayer> players) throws SQLException
+    {
+        SQLUtil.updateBatch(con, PlexPlayer.class, players, false);
+        writeIps(con, players);
+        writeLegacyIps(con, players);
+    }
+
+    /**
+     * Mirrors the IP addresses into the old JSON ips column, which the row writer skips as it is a list, so builds from
+     * before the player_ips table can still read them
+     */
+    private void writeLegacyIps(Connection con, List<PlexPlayer> players) throws SQLException
+    {
+        try (PreparedStatement statement = con.prepareStatement(UPDATE_LEGACY_IPS))
+        {
+            for (PlexPlayer player : players)
+            {
+                statement.setString(1, gson.toJson(player.getIps() == null ? List.of() : player.getIps()));
+                statement.setString(2, player.getUuid().toString());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
 }
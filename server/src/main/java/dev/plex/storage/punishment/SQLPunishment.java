@@ -5,49 +5,43 @@ import dev.plex.Plex;
 import dev.plex.punishment.Punishment;
 import dev.plex.punishment.PunishmentType;
 import dev.plex.util.PlexLog;
-import dev.plex.util.TimeUtils;
+import dev.plex.util.sql.RowMapper;
+import dev.plex.util.sql.SQLUtil;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class SQLPunishment
 {
+    private static final RowMapper<Punishment> MAPPER = SQLUtil.getMapper(Punishment.class);
+
+    /**
+     * The most values bound to one IN clause, well below SQLite's limit of bound parameters
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
     private static final String SELECT = "SELECT * FROM `punishments` WHERE punished=?";
     private static final String SELECT_BY_IP = "SELECT * FROM `punishments` WHERE ip=?";
     private static final String SELECT_BY = "SELECT * FROM `punishments` WHERE punisher=?";
+    private static final String SELECT_ACTIVE = "SELECT * FROM `punishments` WHERE active=?";
 
-    private static final String INSERT = "INSERT INTO `punishments` (`punished`, `punisher`, `punishedUsername`, `ip`, `type`, `reason`, `customTime`, `active`, `endDate`) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)";
     private static final String UPDATE_PUNISHMENT = "UPDATE `punishments` SET active=? WHERE punished=? AND type=?";
+    private static final String UPDATE_PUNISHMENT_BY_ID = "UPDATE `punishments` SET active=? WHERE id=?";
 
     public CompletableFuture<List<Punishment>> getPunishments()
     {
-        return CompletableFuture.supplyAsync(() ->
+        return Plex.get().getStorageExecutor().supply("punishments.all", () ->
         {
             List<Punishment> punishments = Lists.newArrayList();
             try (Connection con = Plex.get().getSqlConnection().getCon())
             {
                 PreparedStatement statement = con.prepareStatement("SELECT * FROM `punishments`");
-                ResultSet set = statement.executeQuery();
-                while (set.next())
-                {
-                    Punishment punishment = new Punishment(UUID.fromString(set.getString("punished")), set.getString("punisher") != null && set.getString("punisher").isEmpty() ? UUID.fromString(set.getString("punisher")) : null);
-                    punishment.setActive(set.getBoolean("active"));
-                    punishment.setType(PunishmentType.valueOf(set.getString("type")));
-                    punishment.setCustomTime(set.getBoolean("customTime"));
-                    punishment.setPunishedUsername(set.getString("punishedUsername"));
-                    punishment.setEndDate(ZonedDateTime.ofInstant(Instant.ofEpochMilli(set.getLong("endDate")), ZoneId.of(TimeUtils.TIMEZONE)));
-                    punishment.setReason(set.getString("reason"));
-                    punishment.setIp(set.getString("ip"));
-                    punishments.add(punishment);
-                }
+                punishments.addAll(MAPPER.mapAll(statement.executeQuery()));
             }
             catch (SQLException e)
             {
@@ -65,19 +59,7 @@ public class SQLPunishment
         {
             PreparedStatement statement = con.prepareStatement(SELECT);
             statement.setString(1, uuid.toString());
-            ResultSet set = statement.executeQuery();
-            while (set.next())
-            {
-                Punishment punishment = new Punishment(UUID.fromString(set.getString("punished")), set.getString("punisher") == null ? null : UUID.fromString(set.getString("punisher")));
-                punishment.setActive(set.getBoolean("active"));
-                punishment.setType(PunishmentType.valueOf(set.getString("type")));
-                punishment.setCustomTime(set.getBoolean("customTime"));
-                punishment.setPunishedUsername(set.getString("punishedUsername"));
-                punishment.setEndDate(ZonedDateTime.ofInstant(Instant.ofEpochMilli(set.getLong("endDate")), ZoneId.of(TimeUtils.TIMEZONE)));
-                punishment.setReason(set.getString("reason"));
-                punishment.setIp(set.getString("ip"));
-                punishments.add(punishment);
-            }
+            punishments.addAll(MAPPER.mapAll(statement.executeQuery()));
         }
         catch (SQLException e)
         {
@@ -85,25 +67,30 @@ public class SQLPunishment
         }
         return punishments;
     }
-    public List<Punishment> getPunishments(String ip)
+
+    /**
+     * Gets the punishments of several players with one query per few hundred players
+     *
+     * @param uuids The unique IDs of the players
+     * @return every punishment of the players
+     */
+    public List<Punishment> getPunishments(Collection<UUID> uuids)
     {
         List<Punishment> punishments = Lists.newArrayList();
+        if (uuids.isEmpty())
+        {
+            return punishments;
+        }
         try (Connection con = Plex.get().getSqlConnection().getCon())
         {
-            PreparedStatement statement = con.prepareStatement(SELECT_BY_IP);
-            statement.setString(1, ip);
-            ResultSet set = statement.executeQuery();
-            while (set.next())
+            for (List<UUID> chunk : Lists.partition(List.copyOf(uuids), IN_CHUNK_SIZE))
             {
-                Punishment punishment = new Punishment(UUID.fromString(set.getString("punished")), set.getString("punisher") == null ? null : UUID.fromString(set.getString("punisher")));
-                punishment.setActive(set.getBoolean("active"));
-                punishment.setType(PunishmentType.valueOf(set.getString("type")));
-                punishment.setCustomTime(set.getBoolean("customTime"));
-                punishment.setPunishedUsername(set.getString("punishedUsername"));
-                punishment.setEndDate(ZonedDateTime.ofInstant(Instant.ofEpochMilli(set.getLong("endDate")), ZoneId.of(TimeUtils.TIMEZONE)));
-                punishment.setReason(set.getString("reason"));
-                punishment.setIp(set.getString("ip"));
-                punishments.add(punishment);
+                PreparedStatement statement = con.prepareStatement("SELECT * FROM `punishments` WHERE punished IN (" + SQLUtil.placeholders(chunk.size()) + ")");
+                for (int i = 0; i < chunk.size(); i++)
+                {
+                    statement.setString(i + 1, chunk.get(i).toString());
+                }
+                punishments.addAll(MAPPER.mapAll(statement.executeQuery()));
             }
         }
         catch (SQLException e)
@@ -113,80 +100,52 @@ public class SQLPunishment
         return punishments;
     }
 
-    public CompletableFuture<Void> insertPunishment(Punishment punishment)
+    public List<Punishment> getPunishments(String ip)
     {
-
-        return CompletableFuture.runAsync(() ->
+        List<Punishment> punishments = Lists.newArrayList();
+        try (Connection con = Plex.get().getSqlConnection().getCon())
         {
-            try (Connection con = Plex.get().getSqlConnection().getCon())
-            {
-                PlexLog.debug("Running execute punishment on " + punishment.getPunished().toString());
-                PreparedStatement statement = con.prepareStatement(INSERT);
-                statement.setString(1, punishment.getPunished().toString());
-                statement.setString(2, punishment.getPunisher() == null ? null : punishment.getPunisher().toString());
-                statement.setString(3, punishment.getPunishedUsername());
-                statement.setString(4, punishment.getIp());
-                statement.setString(5, punishment.getType().name());
-                statement.setString(6, punishment.getReason());
-                statement.setBoolean(7, punishment.isCustomTime());
-                statement.setBoolean(8, punishment.isActive());
-                statement.setLong(9, punishment.getEndDate().toInstant().toEpochMilli());
-                PlexLog.debug("Executing punishment");
-                statement.execute();
-            }
-            catch (SQLException e)
-            {
-                e.printStackTrace();
-            }
-        });
+            PreparedStatement statement = con.prepareStatement(SELECT_BY_IP);
+            statement.setString(1, ip);
+            punishments.addAll(MAPPER.mapAll(statement.executeQuery()));
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+        return punishments;
     }
 
-    public void syncRemoveBan(UUID uuid)
+    public List<Punishment> getActivePunishments()
     {
+        List<Punishment> punishments = Lists.newArrayList();
         try (Connection con = Plex.get().getSqlConnection().getCon())
         {
-            PreparedStatement statement = con.prepareStatement(UPDATE_PUNISHMENT);
-            statement.setBoolean(1, false);
-            statement.setString(2, uuid.toString());
-            statement.setString(3, PunishmentType.BAN.name());
-            statement.executeUpdate();
-
-            PreparedStatement statement1 = con.prepareStatement(UPDATE_PUNISHMENT);
-            statement1.setBoolean(1, false);
-            statement1.setString(2, uuid.toString());
-            statement1.setString(3, PunishmentType.TEMPBAN.name());
-            statement1.executeUpdate();
+            PreparedStatement statement = con.prepareStatement(SELECT_ACTIVE);
+            statement.setBoolean(1, true);
+            punishments.addAll(MAPPER.mapAll(statement.executeQuery()));
         }
         catch (SQLException e)
         {
             e.printStackTrace();
         }
+        return punishments;
     }
 
-    public CompletableFuture<Void> updatePunishment(PunishmentType type, boolean active, UUID punished)
+    public CompletableFuture<Void> insertPunishment(Punishment punishment)
     {
-        return CompletableFuture.runAsync(() ->
+        return Plex.get().getStorageExecutor().run("punishments.insert", () ->
         {
-            try (Connection con = Plex.get().getSqlConnection().getCon())
-            {
-                PreparedStatement statement = con.prepareStatement(UPDATE_PUNISHMENT);
-                statement.setBoolean(1, active);
-                statement.setString(2, punished.toString());
-                statement.setString(3, type.name());
-                statement.executeUpdate();
-            }
-            catch (SQLException e)
-            {
-                e.printStackTrace();
-            }
+            PlexLog.debug("Running execute punishment on " + punishment.getPunished().toString());
+            SQLUtil.update("punishments", punishment);
         });
     }
 
-    public CompletableFuture<Void> removeBan(UUID uuid)
+    public void syncRemoveBan(UUID uuid)
     {
-        return CompletableFuture.runAsync(() ->
+        try
         {
-            try (Connection con = Plex.get().getSqlConnection().getCon())
+            Plex.get().getSqlConnection().write(con ->
             {
                 PreparedStatement statement = con.prepareStatement(UPDATE_PUNISHMENT);
                 statement.setBoolean(1, false);
@@ -198,7 +157,29 @@ public class SQLPunishment
                 statement1.setBoolean(1, false);
                 statement1.setString(2, uuid.toString());
                 statement1.setString(3, PunishmentType.TEMPBAN.name());
-                statement1.executeUpdate();
+                return statement1.executeUpdate();
+            });
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    public CompletableFuture<Void> updatePunishment(PunishmentType type, boolean active, UUID punished)
+    {
+        return Plex.get().getStorageExecutor().run("punishments.update", () ->
+        {
+            try
+            {
+                Plex.get().getSqlConnection().write(con ->
+                {
+                    PreparedStatement statement = con.prepareStatement(UPDATE_PUNISHMENT);
+                    statement.setBoolean(1, active);
+                    statement.setString(2, punished.toString());
+                    statement.setString(3, type.name());
+                    return statement.executeUpdate();
+                });
             }
             catch (SQLException e)
             {
@@ -207,4 +188,50 @@ public class SQLPunishment
         });
     }
 
+    /**
+     * Marks punishments inactive in one batch. Punishments that have not been given an id yet fall back to matching
+     * the player and type.
+     *
+     * @param punishments The punishments to deactivate
+     */
+    public void deactivate(Collection<Punishment> punishments)
+    {
+        try
+        {
+            Plex.get().getSqlConnection().write(con ->
+            {
+                PreparedStatement byId = con.prepareStatement(UPDATE_PUNISHMENT_BY_ID);
+                PreparedStatement byType = con.prepareStatement(UPDATE_PUNISHMENT);
+                for (Punishment punishment : punishments)
+                {
+                    if (punishment.getId() > 0)
+                    {
+                        byId.setBoolean(1, false);
+                        byId.setLong(2, punishment.getId());
+                        byId.addBatch();
+                    }
+                    else
+                    {
+                        byType.setBoolean(1, false);
+                        byType.setString(2, punishment.getPunished().toString());
+                        byType.setString(3, punishment.getType().name());
+                        byType.addBatch();
+                    }
+                }
+                byId.executeBatch();
+                byType.executeBatch();
+                return null;
+            });
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    public CompletableFuture<Void> removeBan(UUID uuid)
+    {
+        return Plex.get().getStorageExecutor().run("punishments.remove_ban", () -> syncRemoveBan(uuid));
+    }
+
 }
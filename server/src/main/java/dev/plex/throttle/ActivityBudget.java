@@ -0,0 +1,146 @@
+package dev.plex.throttle;
+
+import dev.plex.util.SlidingWindowCounter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how much of an activity may happen per key within a window, and keeps track of how much was allowed and
+ * denied over the last second so the budget can be shown while it is in use. The totals are kept in per second
+ * {@link LongAdder}s rather than a shared window, as every region thread counts into them.
+ *
+ * @param <K> The type of the keys the budget is split by
+ */
+public class ActivityBudget<K>
+{
+    private final SlidingWindowCounter<K> usage;
+    private final SlidingWindowCounter<K> denials;
+    private final Tally allowed = new Tally();
+    private final Tally denied = new Tally();
+
+    /**
+     * @param windowMillis The window the limit applies to
+     * @param buckets      The number of buckets the window is split into
+     */
+    public ActivityBudget(long windowMillis, int buckets)
+    {
+        this.usage = new SlidingWindowCounter<>(windowMillis, buckets);
+        this.denials = new SlidingWindowCounter<>(windowMillis, buckets);
+    }
+
+    /**
+     * Takes one unit of the budget of a key if there is any left. Denied attempts don't use up the budget.
+     *
+     * @param key   The key
+     * @param limit The most units allowed per window, or 0 or less for no limit
+     * @return true if the activity may happen
+     */
+    public boolean tryAcquire(K key, int limit)
+    {
+        if (usage.tryIncrement(key, limit))
+        {
+            allowed.increment();
+            return true;
+        }
+        denials.increment(key);
+        denied.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of allowed attempts within the last full second
+     */
+    public int getAllowed()
+    {
+        return allowed.lastSecond();
+    }
+
+    /**
+     * @return the number of denied attempts within the last full second
+     */
+    public int getDenied()
+    {
+        return denied.lastSecond();
+    }
+
+    /**
+     * Gets the number of denied attempts of a key within the window
+     *
+     * @param key The key
+     * @return the number of denied attempts
+     */
+    public int getDenied(K key)
+    {
+        return denials.get(key);
+    }
+
+    /**
+     * Gets the keys that were denied the most within the window
+     *
+     * @param limit The maximum number of keys to return
+     * @return the keys and their denied attempts, most denied first
+     */
+    public List<Map.Entry<K, Integer>> throttled(int limit)
+    {
+        return denials.top(limit);
+    }
+
+    /**
+     * Gets the keys that used the most of their budget within the window
+     *
+     * @param limit The maximum number of keys to return
+     * @return the keys and their usage, most used first
+     */
+    public List<Map.Entry<K, Integer>> top(int limit)
+    {
+        return usage.top(limit);
+    }
+
+    /**
+     * Counts attempts per second in two alternating slots, so the last full second stays readable while the current one
+     * is counted. A slot is only locked to reset it when a new second starts.
+     */
+    private static final class Tally
+    {
+        private final Slot[] slots = {new Slot(), new Slot()};
+
+        private void increment()
+        {
+            long second = currentSecond();
+            Slot slot = slots[(int) (second & 1)];
+            if (slot.second != second)
+            {
+                synchronized (slot)
+                {
+                    if (slot.second != second)
+                    {
+                        slot.count.reset();
+                        slot.second = second;
+                    }
+                }
+            }
+            slot.count.increment();
+        }
+
+        private int lastSecond()
+        {
+            long second = currentSecond() - 1;
+            Slot slot = slots[(int) (second & 1)];
+            return slot.second == second ? slot.count.intValue() : 0;
+        }
+
+        private static long currentSecond()
+        {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        }
+
+        private static final class Slot
+        {
+            private final LongAdder count = new LongAdder();
+            private volatile long second = Long.MIN_VALUE;
+        }
+    }
+}
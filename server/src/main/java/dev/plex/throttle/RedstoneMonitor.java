@@ -0,0 +1,80 @@
+package dev.plex.throttle;
+
+import dev.plex.entity.ChunkWalk.ChunkPos;
+import dev.plex.util.SlidingWindowCounter;
+import org.bukkit.block.Block;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts how often redstone changes per block and per chunk within a sliding window, so clocks can be told apart from
+ * ordinary redstone by how fast they switch.
+ */
+public class RedstoneMonitor
+{
+    private static final int BUCKETS = 20;
+
+    private volatile Counters counters = new Counters(5000L);
+
+    /**
+     * Counts a redstone change of a block
+     *
+     * @param block        The block whose current changed
+     * @param windowMillis The length of the window to count over, changing it starts counting from scratch
+     * @return the changes of the block and of its chunk within the window, including this one
+     */
+    public Activity record(Block block, long windowMillis)
+    {
+        Counters current = counters;
+        if (current.blocks.getWindowMillis() != windowMillis)
+        {
+            current = new Counters(windowMillis);
+            counters = current;
+        }
+        int blockChanges = current.blocks.increment(new BlockPos(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ()));
+        int chunkChanges = current.chunks.increment(ChunkPos.of(block.getWorld(), block.getX() >> 4, block.getZ() >> 4));
+        return new Activity(blockChanges, chunkChanges);
+    }
+
+    /**
+     * Gets the chunks with the most redstone changes within the window
+     *
+     * @param limit The maximum number of chunks to return
+     * @return the chunks and their changes, most changes first
+     */
+    public List<Map.Entry<ChunkPos, Integer>> hottestChunks(int limit)
+    {
+        return counters.chunks.top(limit);
+    }
+
+    public long getWindowMillis()
+    {
+        return counters.blocks.getWindowMillis();
+    }
+
+    /**
+     * @param block The changes of the block within the window
+     * @param chunk The changes in the block's chunk within the window
+     */
+    public record Activity(int block, int chunk)
+    {
+    }
+
+    private record BlockPos(UUID world, int x, int y, int z)
+    {
+    }
+
+    private static final class Counters
+    {
+        private final SlidingWindowCounter<BlockPos> blocks;
+        private final SlidingWindowCounter<ChunkPos> chunks;
+
+        private Counters(long windowMillis)
+        {
+            this.blocks = new SlidingWindowCounter<>(windowMillis, BUCKETS);
+            this.chunks = new SlidingWindowCounter<>(windowMillis, BUCKETS);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Stack;
 import java.util.UUID;
@@ -78,6 +79,17 @@ public class PlexUtils implements PlexBase
         players[0].getWorld().playSound(location, org.bukkit.Sound.BLOCK_FIRE_EXTINGUISH, 0.5f, 0.5f);
     }
 
+    /**
+     * Shows the disabled effect to every player within 10 blocks of a location
+     *
+     * @param location The location something was blocked at
+     */
+    public static void disabledEffectNearby(Location location)
+    {
+        Collection<Player> players = location.getNearbyEntitiesByType(Player.class, 10);
+        disabledEffectMultiple(players.toArray(new Player[players.size()]), location); // dont let intellij auto correct toArray to an empty array (for efficiency)
+    }
+
     public static void testConnections()
     {
         if (Plex.get().getSqlConnection().getDataSource() != null)
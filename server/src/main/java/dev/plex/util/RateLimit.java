@@ -0,0 +1,111 @@
+package dev.plex.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per key, implemented with the generic cell rate algorithm: each key keeps a single timestamp updated
+ * with compare-and-set, which allows a burst and then a steady rate, with no periodic refill and no locking.
+ *
+ * @param <K> The type of the keys being limited
+ */
+public class RateLimit<K>
+{
+    private static final int PRUNE_EVERY = 1024;
+
+    private final Map<K, AtomicLong> states = new ConcurrentHashMap<>();
+    private final AtomicInteger untilPrune = new AtomicInteger(PRUNE_EVERY);
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * @param limit        The most actions allowed within the window, which is also the burst size
+     * @param windowMillis The length of the window
+     */
+    public RateLimit(int limit, long windowMillis)
+    {
+        long windowNanos = Math.max(1L, windowMillis) * 1_000_000L;
+        int burst = Math.max(1, limit);
+        this.intervalNanos = windowNanos / burst;
+        this.toleranceNanos = windowNanos - intervalNanos;
+    }
+
+    /**
+     * Creates a limit from a steady rate and a burst size
+     *
+     * @param perSecond The actions allowed per second once the burst is used
+     * @param burst     The actions allowed at once
+     * @return the rate limit
+     */
+    public static <K> RateLimit<K> perSecond(double perSecond, int burst)
+    {
+        int limit = Math.max(1, burst);
+        return new RateLimit<>(limit, Math.max(1L, Math.round(limit * 1000D / Math.max(0.001, perSecond))));
+    }
+
+    /**
+     * Takes a token for a key if one is available
+     *
+     * @param key The key doing the action
+     * @return true if the action is allowed, false if the key went over the limit
+     */
+    public boolean tryAcquire(K key)
+    {
+        if (untilPrune.decrementAndGet() <= 0)
+        {
+            untilPrune.set(PRUNE_EVERY);
+            prune();
+        }
+        // The theoretical time the next action is due, a burst spends the tolerance ahead of it
+        AtomicLong due = states.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        while (true)
+        {
+            long now = System.nanoTime();
+            long current = due.get();
+            long start = current - now > 0 ? current : now;
+            if (start - now > toleranceNanos)
+            {
+                return false;
+            }
+            if (due.compareAndSet(current, start + intervalNanos))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(Object)}, for when the action was stopped by something else
+     *
+     * @param key The key that took the token
+     */
+    public void refund(K key)
+    {
+        AtomicLong due = states.get(key);
+        if (due != null)
+        {
+            due.addAndGet(-intervalNanos);
+        }
+    }
+
+    public void remove(K key)
+    {
+        states.remove(key);
+    }
+
+    /**
+     * Forgets every key whose bucket has refilled completely, as it behaves the same as a key never seen before
+     */
+    public void prune()
+    {
+        long now = System.nanoTime();
+        states.values().removeIf(due -> due.get() - now <= 0);
+    }
+
+    public int size()
+    {
+        return states.size();
+    }
+}
@@ -0,0 +1,64 @@
+package dev.plex.util;
+
+import dev.plex.Plex;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per player rate limits. Each action allows a burst of up to its limit and then exactly one action per window / limit,
+ * with no periodic reset and no locking.
+ *
+ * @see RateLimit
+ */
+public class RateLimiter
+{
+    private final Map<Action, RateLimit<UUID>> limits = new EnumMap<>(Action.class);
+
+    public RateLimiter()
+    {
+        for (Action action : Action.values())
+        {
+            String path = "ratelimits." + action.name().toLowerCase(Locale.ROOT);
+            int limit = Plex.get().config.getInt(path + ".limit", action.defaultLimit);
+            long window = Plex.get().config.getLong(path + ".window", 5000L);
+            limits.put(action, new RateLimit<>(limit, window));
+        }
+    }
+
+    /**
+     * Records an action if the player is still under its limit
+     *
+     * @param action The action the player is doing
+     * @param uuid   The unique ID of the player
+     * @return true if the action is allowed, false if the player went over the limit
+     */
+    public boolean tryAcquire(Action action, UUID uuid)
+    {
+        return limits.get(action).tryAcquire(uuid);
+    }
+
+    /**
+     * Forgets a player, usually once they leave
+     *
+     * @param uuid The unique ID of the player
+     */
+    public void remove(UUID uuid)
+    {
+        limits.values().forEach(limit -> limit.remove(uuid));
+    }
+
+    public enum Action
+    {
+        CHAT(8), COMMAND(8), BLOCK_BREAK(200), BLOCK_PLACE(200);
+
+        private final int defaultLimit;
+
+        Action(int defaultLimit)
+        {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package dev.plex.util;
+
+import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts events per key over a sliding window. The window is split into a ring of buckets, so counting is a couple of
+ * array writes and old events fall out of the window bucket by bucket without being stored individually.
+ *
+ * @param <K> The type of the keys being counted
+ */
+public class SlidingWindowCounter<K>
+{
+    private static final int PRUNE_EVERY = 4096;
+
+    private final Map<K, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger untilPrune = new AtomicInteger(PRUNE_EVERY);
+    private final int buckets;
+    private final long bucketNanos;
+    private final long windowMillis;
+
+    /**
+     * @param windowMillis The length of the window
+     * @param buckets      The number of buckets the window is split into, more buckets make it slide more smoothly
+     */
+    public SlidingWindowCounter(long windowMillis, int buckets)
+    {
+        this.buckets = Math.max(1, buckets);
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.bucketNanos = Math.max(1L, TimeUnit.MILLISECONDS.toNanos(this.windowMillis) / this.buckets);
+    }
+
+    /**
+     * Counts an event
+     *
+     * @param key The key the event happened for
+     * @return the number of events counted for the key within the window, including this one
+     */
+    public int increment(K key)
+    {
+        long bucket = currentBucket();
+        return window(key, bucket).add(bucket, 1);
+    }
+
+    /**
+     * Counts an event only if the key has fewer than a number of events within the window, checking and counting in
+     * one step
+     *
+     * @param key   The key the event happened for
+     * @param limit The most events allowed within the window, or 0 or less for no limit
+     * @return true if the event was counted
+     */
+    public boolean tryIncrement(K key, int limit)
+    {
+        long bucket = currentBucket();
+        return window(key, bucket).tryAdd(bucket, limit);
+    }
+
+    /**
+     * Gets the number of events counted for a key within the window
+     *
+     * @param key The key
+     * @return the number of events
+     */
+    public int get(K key)
+    {
+        Window window = windows.get(key);
+        return window == null ? 0 : window.add(currentBucket(), 0);
+    }
+
+    /**
+     * Gets the keys with the most events within the window
+     *
+     * @param limit The maximum number of keys to return
+     * @return the keys and their counts, most events first
+     */
+    public List<Map.Entry<K, Integer>> top(int limit)
+    {
+        long bucket = currentBucket();
+        PriorityQueue<Map.Entry<K, Integer>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<K, Window> entry : windows.entrySet())
+        {
+            int count = entry.getValue().add(bucket, 0);
+            if (count <= 0 || limit <= 0)
+            {
+                continue;
+            }
+            if (top.size() < limit)
+            {
+                top.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+            }
+            else if (top.peek().getValue() < count)
+            {
+                top.poll();
+                top.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+            }
+        }
+        List<Map.Entry<K, Integer>> result = new ArrayList<>(top);
+        result.sort(Map.Entry.<K, Integer>comparingByValue().reversed());
+        return result;
+    }
+
+    /**
+     * Forgets every key without events in the window
+     */
+    public void prune()
+    {
+        long bucket = currentBucket();
+        windows.values().removeIf(window -> window.add(bucket, 0) == 0);
+    }
+
+    public void clear()
+    {
+        windows.clear();
+    }
+
+    public int size()
+    {
+        return windows.size();
+    }
+
+    public long getWindowMillis()
+    {
+        return windowMillis;
+    }
+
+    private Window window(K key, long bucket)
+    {
+        if (untilPrune.decrementAndGet() <= 0)
+        {
+            untilPrune.set(PRUNE_EVERY);
+            prune();
+        }
+        Window window = windows.get(key);
+        return window != null ? window : windows.computeIfAbsent(key, k -> new Window(buckets, bucket));
+    }
+
+    private long currentBucket()
+    {
+        return System.nanoTime() / bucketNanos;
+    }
+
+    private static final class Window
+    {
+        private final int[] counts;
+        private long head;
+        private int total;
+
+        private Window(int buckets, long head)
+        {
+            this.counts = new int[buckets];
+            this.head = head;
+        }
+
+        /**
+         * Slides the window up to a bucket and adds to it
+         */
+        private synchronized int add(long bucket, int amount)
+        {
+            slide(bucket);
+            counts[(int) Math.floorMod(head, (long) counts.length)] += amount;
+            total += amount;
+            return total;
+        }
+
+        /**
+         * Slides the window up to a bucket and adds one to it if the window is below a limit
+         */
+        private synchronized boolean tryAdd(long bucket, int limit)
+        {
+            slide(bucket);
+            if (limit > 0 && total >= limit)
+            {
+                return false;
+            }
+            counts[(int) Math.floorMod(head, (long) counts.length)]++;
+            total++;
+            return true;
+        }
+
+        private void slide(long bucket)
+        {
+            if (bucket - head >= counts.length)
+            {
+                Arrays.fill(counts, 0);
+                total = 0;
+            }
+            else
+            {
+                for (long i = head + 1; i <= bucket; i++)
+                {
+                    int slot = (int) Math.floorMod(i, (long) counts.length);
+                    total -= counts[slot];
+                    counts[slot] = 0;
+                }
+            }
+            if (bucket > head)
+            {
+                head = bucket;
+            }
+        }
+    }
+}
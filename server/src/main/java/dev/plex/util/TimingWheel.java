@@ -0,0 +1,178 @@
+package dev.plex.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel. Every level has 64 slots and each slot of a level spans all 64 slots of the level below
+ * it, so five levels cover roughly 34 years of one second ticks. Scheduling and cancelling are constant time and an
+ * entry only moves down a level when its slot comes up.
+ *
+ * @param <K> The key an entry can be cancelled or replaced by
+ * @param <V> The value returned when an entry expires
+ */
+public class TimingWheel<K, V>
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    private final long tickMillis;
+    private final ArrayDeque<Entry<K, V>>[][] wheels;
+    private final Map<K, Entry<K, V>> entries = Maps.newHashMap();
+    private final List<Entry<K, V>> due = Lists.newArrayList();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis)
+    {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++)
+        {
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules a value to expire at the given time, replacing any entry scheduled under the same key
+     *
+     * @param key            The key of the entry
+     * @param value          The value to return when it expires
+     * @param deadlineMillis The expiry time in epoch milliseconds
+     */
+    public synchronized void schedule(K key, V value, long deadlineMillis)
+    {
+        cancel(key);
+        Entry<K, V> entry = new Entry<>(key, value, (deadlineMillis + tickMillis - 1) / tickMillis);
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * Cancels the entry scheduled under a key. The entry is dropped lazily when its slot comes up.
+     *
+     * @param key The key of the entry
+     * @return the value that was scheduled, or null if nothing was scheduled
+     */
+    public synchronized V cancel(K key)
+    {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null)
+        {
+            return null;
+        }
+        entry.cancelled = true;
+        return entry.value;
+    }
+
+    /**
+     * Advances the wheel to the given time
+     *
+     * @param nowMillis The current time in epoch milliseconds
+     * @return every value that expired, in expiry order
+     */
+    public synchronized List<V> advance(long nowMillis)
+    {
+        List<V> expired = Lists.newArrayList();
+        collect(due, expired);
+        due.clear();
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick)
+        {
+            currentTick++;
+            for (int level = 1; level < LEVELS; level++)
+            {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0)
+                {
+                    break;
+                }
+                ArrayDeque<Entry<K, V>> slot = wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & MASK)];
+                Entry<K, V> entry;
+                while ((entry = slot.poll()) != null)
+                {
+                    if (!entry.cancelled)
+                    {
+                        place(entry);
+                    }
+                }
+            }
+            ArrayDeque<Entry<K, V>> slot = wheels[0][(int) (currentTick & MASK)];
+            Entry<K, V> entry;
+            while ((entry = slot.poll()) != null)
+            {
+                if (entry.cancelled)
+                {
+                    continue;
+                }
+                if (entry.deadlineTick > currentTick)
+                {
+                    place(entry);
+                    continue;
+                }
+                entries.remove(entry.key, entry);
+                expired.add(entry.value);
+            }
+            collect(due, expired);
+            due.clear();
+        }
+        return expired;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    private void place(Entry<K, V> entry)
+    {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0)
+        {
+            due.add(entry);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1)))
+        {
+            level++;
+        }
+        wheels[level][(int) ((entry.deadlineTick >>> (SLOT_BITS * level)) & MASK)].add(entry);
+    }
+
+    private void collect(List<Entry<K, V>> entries, List<V> expired)
+    {
+        for (Entry<K, V> entry : entries)
+        {
+            if (!entry.cancelled && this.entries.remove(entry.key, entry))
+            {
+                expired.add(entry.value);
+            }
+        }
+    }
+
+    private static final class Entry<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Entry(K key, V value, long deadlineTick)
+        {
+            this.key = key;
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
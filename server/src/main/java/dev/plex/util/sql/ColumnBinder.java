@@ -0,0 +1,74 @@
+package dev.plex.util.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Binds the value of a mapped field to a statement parameter. The write side of {@link ColumnCodec}.
+ */
+@FunctionalInterface
+public interface ColumnBinder
+{
+    ColumnBinder STRING = (statement, index, value) -> statement.setString(index, (String) value);
+    ColumnBinder BOOLEAN = (statement, index, value) -> statement.setBoolean(index, value != null && (Boolean) value);
+    ColumnBinder LONG = (statement, index, value) -> statement.setLong(index, value == null ? 0L : (Long) value);
+    ColumnBinder INT = (statement, index, value) -> statement.setInt(index, value == null ? 0 : (Integer) value);
+    ColumnBinder TO_STRING = (statement, index, value) ->
+    {
+        if (value == null)
+        {
+            statement.setNull(index, Types.VARCHAR);
+            return;
+        }
+        statement.setString(index, value instanceof Enum<?> constant ? constant.name() : value.toString());
+    };
+    ColumnBinder ZONED_DATE_TIME = (statement, index, value) ->
+    {
+        if (value == null)
+        {
+            statement.setNull(index, Types.BIGINT);
+            return;
+        }
+        statement.setLong(index, ((ZonedDateTime) value).toInstant().toEpochMilli());
+    };
+
+    void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+
+    /**
+     * Gets the binder for a field type
+     *
+     * @param type The field type
+     * @return the binder, or null if the type can't be written to a single column
+     */
+    static ColumnBinder forType(Class<?> type)
+    {
+        if (type == String.class)
+        {
+            return STRING;
+        }
+        if (type == boolean.class || type == Boolean.class)
+        {
+            return BOOLEAN;
+        }
+        if (type == long.class || type == Long.class)
+        {
+            return LONG;
+        }
+        if (type == int.class || type == Integer.class)
+        {
+            return INT;
+        }
+        if (type == UUID.class || type.isEnum())
+        {
+            return TO_STRING;
+        }
+        if (type == ZonedDateTime.class)
+        {
+            return ZONED_DATE_TIME;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package dev.plex.util.sql;
+
+import com.google.common.collect.Maps;
+import dev.plex.util.TimeUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads a column into the Java type of a mapped field. Codecs are stateless and shared between every mapper.
+ */
+@FunctionalInterface
+public interface ColumnCodec
+{
+    ColumnCodec STRING = ResultSet::getString;
+    ColumnCodec BOOLEAN = ResultSet::getBoolean;
+    ColumnCodec LONG = ResultSet::getLong;
+    ColumnCodec INT = ResultSet::getInt;
+    ColumnCodec UUID_CODEC = (set, index) ->
+    {
+        String value = set.getString(index);
+        return value == null || value.isEmpty() ? null : UUID.fromString(value);
+    };
+    ColumnCodec ZONED_DATE_TIME = (set, index) -> ZonedDateTime.ofInstant(Instant.ofEpochMilli(set.getLong(index)), Zone.get());
+
+    Object read(ResultSet set, int index) throws SQLException;
+
+    /**
+     * Gets the codec for a field type
+     *
+     * @param type The field type
+     * @return the codec, or null if the type can't be read from a single column
+     */
+    static ColumnCodec forType(Class<?> type)
+    {
+        if (type == String.class)
+        {
+            return STRING;
+        }
+        if (type == boolean.class || type == Boolean.class)
+        {
+            return BOOLEAN;
+        }
+        if (type == long.class || type == Long.class)
+        {
+            return LONG;
+        }
+        if (type == int.class || type == Integer.class)
+        {
+            return INT;
+        }
+        if (type == UUID.class)
+        {
+            return UUID_CODEC;
+        }
+        if (type == ZonedDateTime.class)
+        {
+            return ZONED_DATE_TIME;
+        }
+        if (type.isEnum())
+        {
+            return Zone.ENUMS.computeIfAbsent(type, ColumnCodec::enumCodec);
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ColumnCodec enumCodec(Class<?> type)
+    {
+        return (set, index) ->
+        {
+            String value = set.getString(index);
+            return value == null ? null : Enum.valueOf((Class<? extends Enum>) type, value);
+        };
+    }
+
+    /**
+     * Keeps the configured time zone parsed until it changes on reload
+     */
+    final class Zone
+    {
+        private static final Map<Class<?>, ColumnCodec> ENUMS = Maps.newConcurrentMap();
+        private static volatile Zone cached;
+
+        private final String name;
+        private final ZoneId zoneId;
+
+        private Zone(String name)
+        {
+            this.name = name;
+            this.zoneId = ZoneId.of(name);
+        }
+
+        static ZoneId get()
+        {
+            Zone zone = cached;
+            String name = TimeUtils.TIMEZONE;
+            if (zone == null || !zone.name.equals(name))
+            {
+                zone = new Zone(name);
+                cached = zone;
+            }
+            return zone.zoneId;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package dev.plex.util.sql;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.plex.util.PlexLog;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maps rows of a {@link Table} to objects. The constructor and field setters are resolved once as method handles,
+ * and column indexes are resolved once per result set instead of by name for every row.
+ * <p>
+ * If the class has a constructor taking its final fields in declaration order it is used, otherwise the no argument
+ * constructor is used. Every other mapped field is set through its setter handle.
+ */
+public class RowMapper<T>
+{
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final Column[] constructorColumns;
+    private final Column[] fieldColumns;
+
+    RowMapper(Class<T> type, Table table)
+    {
+        if (table == null)
+        {
+            throw new IllegalArgumentException(type.getName() + " is not an SQL table");
+        }
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Column> finals = Lists.newArrayList();
+        List<Column> others = Lists.newArrayList();
+        try
+        {
+            for (Map.Entry<String, Field> entry : table.fields().entrySet())
+            {
+                Field field = entry.getValue();
+                ColumnCodec codec = ColumnCodec.forType(field.getType());
+                if (codec == null)
+                {
+                    PlexLog.warn("No codec for column {0} of {1}, it will not be mapped", entry.getKey(), type.getName());
+                    continue;
+                }
+                field.setAccessible(true);
+                Column column = new Column(entry.getKey(), codec, lookup.unreflectSetter(field));
+                if (Modifier.isFinal(field.getModifiers()))
+                {
+                    finals.add(column);
+                }
+                else
+                {
+                    others.add(column);
+                }
+            }
+
+            Constructor<T> finalsConstructor = findConstructor(type, table, finals);
+            if (finalsConstructor != null)
+            {
+                finalsConstructor.setAccessible(true);
+                this.constructor = lookup.unreflectConstructor(finalsConstructor).asSpreader(Object[].class, finals.size());
+                this.constructorColumns = finals.toArray(new Column[0]);
+                this.fieldColumns = others.toArray(new Column[0]);
+            }
+            else
+            {
+                Constructor<T> empty = type.getDeclaredConstructor();
+                empty.setAccessible(true);
+                this.constructor = lookup.unreflectConstructor(empty).asType(MethodType.methodType(Object.class));
+                this.constructorColumns = new Column[0];
+                // Final fields are still written through their setter handles after construction
+                finals.addAll(others);
+                this.fieldColumns = finals.toArray(new Column[0]);
+            }
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to build a row mapper for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Maps every remaining row of a result set
+     *
+     * @param set The result set
+     * @return the mapped objects
+     */
+    public List<T> mapAll(ResultSet set) throws SQLException
+    {
+        List<T> result = Lists.newArrayList();
+        Bound bound = bind(set.getMetaData());
+        while (set.next())
+        {
+            result.add(bound.map(set));
+        }
+        return result;
+    }
+
+    /**
+     * Maps the next row of a result set
+     *
+     * @param set The result set
+     * @return the mapped object, or null if there are no more rows
+     */
+    public T mapOne(ResultSet set) throws SQLException
+    {
+        if (!set.next())
+        {
+            return null;
+        }
+        return bind(set.getMetaData()).map(set);
+    }
+
+    private Bound bind(ResultSetMetaData metaData) throws SQLException
+    {
+        Map<String, Integer> indexes = Maps.newHashMap();
+        for (int i = 1; i <= metaData.getColumnCount(); i++)
+        {
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new Bound(indexesOf(constructorColumns, indexes), indexesOf(fieldColumns, indexes));
+    }
+
+    private static int[] indexesOf(Column[] columns, Map<String, Integer> indexes)
+    {
+        int[] result = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
+        {
+            result[i] = indexes.getOrDefault(columns[i].name().toLowerCase(Locale.ROOT), -1);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Constructor<T> findConstructor(Class<T> type, Table table, List<Column> finals)
+    {
+        if (finals.isEmpty())
+        {
+            return null;
+        }
+        Map<String, Class<?>> fieldTypes = table.fields().entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getType()));
+        Class<?>[] parameters = finals.stream().map(column -> fieldTypes.get(column.name())).toArray(Class<?>[]::new);
+        return (Constructor<T>) Arrays.stream(type.getDeclaredConstructors())
+                .filter(constructor -> Arrays.equals(constructor.getParameterTypes(), parameters))
+                .findFirst().orElse(null);
+    }
+
+    private record Column(String name, ColumnCodec codec, MethodHandle setter)
+    {
+    }
+
+    private class Bound
+    {
+        private final int[] constructorIndexes;
+        private final int[] fieldIndexes;
+
+        private Bound(int[] constructorIndexes, int[] fieldIndexes)
+        {
+            this.constructorIndexes = constructorIndexes;
+            this.fieldIndexes = fieldIndexes;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T map(ResultSet set) throws SQLException
+        {
+            try
+            {
+                T object;
+                if (constructorColumns.length == 0)
+                {
+                    object = (T) constructor.invoke();
+                }
+                else
+                {
+                    Object[] arguments = new Object[constructorColumns.length];
+                    for (int i = 0; i < arguments.length; i++)
+                    {
+                        if (constructorIndexes[i] != -1)
+                        {
+                            arguments[i] = constructorColumns[i].codec().read(set, constructorIndexes[i]);
+                        }
+                    }
+                    object = (T) constructor.invoke(arguments);
+                }
+                for (int i = 0; i < fieldColumns.length; i++)
+                {
+                    if (fieldIndexes[i] != -1)
+                    {
+                        fieldColumns[i].setter().invoke(object, fieldColumns[i].codec().read(set, fieldIndexes[i]));
+                    }
+                }
+                return object;
+            }
+            catch (SQLException e)
+            {
+                throw e;
+            }
+            catch (Throwable throwable)
+            {
+                throw new SQLException("Unable to map a row to " + type.getName(), throwable);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.plex.util.sql;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import dev.plex.Plex;
 import dev.plex.punishment.PunishmentType;
 import dev.plex.storage.annotation.*;
 import dev.plex.util.PlexLog;
@@ -13,6 +14,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,7 +26,48 @@ import java.util.stream.Collectors;
  */
 public class SQLUtil
 {
-    public static final Map<String, Table> TABLES = Maps.newHashMap();
+    public static final Map<String, Table> TABLES = Maps.newConcurrentMap();
+    private static final Map<Class<?>, RowMapper<?>> MAPPERS = Maps.newConcurrentMap();
+    private static final Map<String, TableWriter> WRITERS = Maps.newConcurrentMap();
+
+    /**
+     * Gets the table metadata for a class annotated with {@link SQLTable}, mapping it if it hasn't been yet
+     *
+     * @param clazz The class
+     * @return the table, or null if the class is not a table
+     */
+    public static Table getTable(Class<?> clazz)
+    {
+        final SQLTable annotation = clazz.getAnnotation(SQLTable.class);
+        if (annotation == null)
+        {
+            return null;
+        }
+        Table table = TABLES.get(annotation.value());
+        if (table == null)
+        {
+            createTable(Lists.newArrayList(), clazz);
+            table = TABLES.get(annotation.value());
+        }
+        return table;
+    }
+
+    /**
+     * Gets the cached row mapper for a class annotated with {@link SQLTable}
+     *
+     * @param clazz The class
+     * @return the row mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> getMapper(Class<T> clazz)
+    {
+        return (RowMapper<T>) MAPPERS.computeIfAbsent(clazz, c -> new RowMapper<>(c, getTable(c)));
+    }
+
+    public static String getColumnName(Field field)
+    {
+        return field.isAnnotationPresent(SQLColumn.class) ? field.getAnnotation(SQLColumn.class).value() : field.getName();
+    }
 
     public static List<String> createTable(List<String> result, Class<?> clazz)
     {
@@ -76,11 +120,12 @@ public class SQLUtil
         }
         if (primaryKey != null && !primaryKey.getAnnotation(PrimaryKey.class).dontSet())
         {
-            mainResult.append(", PRIMARY KEY (`").append(primaryKey.getName()).append("`)");
+            mainResult.append(", PRIMARY KEY (`").append(getColumnName(primaryKey)).append("`)");
         }
         mainResult.append(");");
         result.add(mainResult.toString());
 
+        table.primaryKey(primaryKey);
         TABLES.put(table.name(), table);
 
         if (primaryKey == null && !collectionFields.isEmpty())
@@ -96,7 +141,12 @@ public class SQLUtil
             StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS `" + tableName + "` (");
             if (field.isAnnotationPresent(MapObjectList.class))
             {
-                createTable(result, ReflectionsUtil.getGenericField(field));
+                final Class<?> objectClass = ReflectionsUtil.getGenericField(field);
+                createTable(result, objectClass);
+                if (objectClass.isAnnotationPresent(SQLTable.class))
+                {
+                    table.objectLists().put(field, TABLES.get(objectClass.getAnnotation(SQLTable.class).value()));
+                }
                 return;
             }
             final Mapper mapped = Mapper.getByClass(ReflectionsUtil.getGenericField(field));
@@ -116,38 +166,108 @@ public class SQLUtil
         return result;
     }
 
+    /**
+     * Upserts an object and its {@link MapObjectList} fields in one transaction
+     *
+     * @param tableName The name of the object's table
+     * @param object    The object to write
+     */
     public static void update(String tableName, Object object)
     {
-        final Table table = TABLES.get(tableName);
+        Table table = TABLES.get(tableName);
+        if (table == null && object.getClass().isAnnotationPresent(SQLTable.class) && object.getClass().getAnnotation(SQLTable.class).value().equals(tableName))
+        {
+            table = getTable(object.getClass());
+        }
         if (table == null)
         {
             PlexLog.error("Table {0} was not found", tableName);
             return;
         }
 
+        final Table finalTable = table;
+        try
+        {
+            Plex.get().getSqlConnection().write(con ->
+            {
+                getWriter(finalTable).write(con, List.of(object), true);
+                return null;
+            });
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
     }
 
-    private static void writeFieldToSQL(Table table, StringBuilder sb, Mapper mapped, Field field)
+    /**
+     * Upserts objects of a table as one batch on the given connection. The caller owns the transaction.
+     *
+     * @param con         The connection to write on
+     * @param clazz       The class of the objects
+     * @param objects     The objects to write
+     * @param objectLists Whether {@link MapObjectList} fields should be written as well
+     * @throws SQLException if the batch fails
+     */
+    /**
+     * Builds the placeholders of an IN clause
+     *
+     * @param count The number of values
+     * @return the placeholders, e.g. "?, ?, ?"
+     */
+    public static String placeholders(int count)
+    {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public static void updateBatch(Connection con, Class<?> clazz, Collection<?> objects, boolean objectLists) throws SQLException
+    {
+        final Table table = getTable(clazz);
+        if (table == null)
+        {
+            throw new SQLException(clazz.getName() + " is not mapped to a table");
+        }
+        getWriter(table).write(con, objects, objectLists);
+    }
+
+    static TableWriter getWriter(Table table)
     {
+        TableWriter writer = WRITERS.get(table.name());
+        if (writer == null)
+        {
+            // Built outside of computeIfAbsent since a writer builds the writers of its object lists
+            writer = new TableWriter(table, Plex.get().getStorageType());
+            TableWriter existing = WRITERS.putIfAbsent(table.name(), writer);
+            if (existing != null)
+            {
+                writer = existing;
+            }
+        }
+        return writer;
+    }
 
-        sb.append("`").append(field.getName()).append("` ");
+    private static void writeFieldToSQL(Table table, StringBuilder sb, Mapper mapped, Field field)
+    {
+        final String column = getColumnName(field);
+        sb.append("`").append(column).append("` ");
+        table.fields().put(column, field);
         if (mapped == Mapper.VARCHAR)
         {
             if (field.isAnnotationPresent(NoLimit.class))
             {
                 sb.append("TEXT");
-                table.columns().put(field.getName(), Mapper.TEXT);
+                table.columns().put(column, Mapper.TEXT);
             }
             else
             {
                 sb.append(mapped.name());
-                table.columns().put(field.getName(), mapped);
+                table.columns().put(column, mapped);
             }
         }
         else
         {
             sb.append(mapped.name());
-            table.columns().put(field.getName(), mapped);
+            table.columns().put(column, mapped);
         }
         if (mapped == Mapper.VARCHAR && !field.isAnnotationPresent(NoLimit.class))
         {
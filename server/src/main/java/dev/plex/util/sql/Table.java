@@ -1,12 +1,10 @@
 package dev.plex.util.sql;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
 import java.lang.reflect.Field;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +17,9 @@ import java.util.Map;
 public class Table
 {
     private final String name;
-    private final Map<String, SQLUtil.Mapper> columns = Maps.newHashMap();
+    private final Map<String, SQLUtil.Mapper> columns = Maps.newLinkedHashMap();
+    private final Map<String, Field> fields = Maps.newLinkedHashMap();
     private final Map<Field, Table> mappedTables = Maps.newHashMap();
+    private final Map<Field, Table> objectLists = Maps.newHashMap();
+    private Field primaryKey;
 }
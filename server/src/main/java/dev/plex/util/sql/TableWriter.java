@@ -0,0 +1,206 @@
+package dev.plex.util.sql;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.plex.storage.StorageType;
+import dev.plex.util.PlexLog;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes objects of a {@link Table} with a single upsert per row. The SQL is generated once for the storage dialect
+ * and every field is read through a precomputed getter handle.
+ * <p>
+ * A numeric primary key that is still 0 is treated as not yet assigned: the row is inserted without it and the
+ * generated key is written back to the object.
+ */
+public class TableWriter
+{
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Table table;
+    private final Column[] columns;
+    private final Column[] columnsWithoutKey;
+    private final Column key;
+    private final boolean generatedKey;
+    private final MethodHandle keySetter;
+    private final String upsertSql;
+    private final String insertSql;
+    private final Map<MethodHandle, TableWriter> objectLists = Maps.newLinkedHashMap();
+
+    TableWriter(Table table, StorageType storageType)
+    {
+        this.table = table;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Column> columnList = Lists.newArrayList();
+        Column keyColumn = null;
+        try
+        {
+            for (Map.Entry<String, Field> entry : table.fields().entrySet())
+            {
+                Field field = entry.getValue();
+                ColumnBinder binder = ColumnBinder.forType(field.getType());
+                if (binder == null)
+                {
+                    PlexLog.warn("No binder for column {0} of {1}, it will not be written", entry.getKey(), table.name());
+                    continue;
+                }
+                field.setAccessible(true);
+                Column column = new Column(entry.getKey(), binder, lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                columnList.add(column);
+                if (field.equals(table.primaryKey()))
+                {
+                    keyColumn = column;
+                }
+            }
+            this.key = keyColumn;
+            this.generatedKey = keyColumn != null && (table.primaryKey().getType() == long.class || table.primaryKey().getType() == int.class);
+            this.keySetter = generatedKey ? lookup.unreflectSetter(table.primaryKey()) : null;
+
+            for (Map.Entry<Field, Table> entry : table.objectLists().entrySet())
+            {
+                entry.getKey().setAccessible(true);
+                objectLists.put(lookup.unreflectGetter(entry.getKey()).asType(GETTER_TYPE), SQLUtil.getWriter(entry.getValue()));
+            }
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to build a table writer for " + table.name(), e);
+        }
+        this.columns = columnList.toArray(new Column[0]);
+        this.columnsWithoutKey = columnList.stream().filter(column -> column != key).toArray(Column[]::new);
+        this.upsertSql = buildUpsert(storageType);
+        this.insertSql = generatedKey ? buildInsert(columnsWithoutKey) : null;
+    }
+
+    /**
+     * Writes objects in one batch on the given connection. The caller owns the transaction.
+     *
+     * @param con         The connection to write on
+     * @param objects     The objects to write
+     * @param objectLists Whether {@link dev.plex.storage.annotation.MapObjectList} fields should be written as well
+     * @throws SQLException if a write fails
+     */
+    public void write(Connection con, Collection<?> objects, boolean objectLists) throws SQLException
+    {
+        if (objects.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            List<Object> existing = Lists.newArrayListWithCapacity(objects.size());
+            for (Object object : objects)
+            {
+                if (generatedKey && ((Number) key.getter().invoke(object)).longValue() == 0)
+                {
+                    insertGenerated(con, object);
+                }
+                else
+                {
+                    existing.add(object);
+                }
+            }
+            if (!existing.isEmpty())
+            {
+                try (PreparedStatement statement = con.prepareStatement(upsertSql))
+                {
+                    for (Object object : existing)
+                    {
+                        bind(statement, columns, object);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            if (objectLists)
+            {
+                for (Map.Entry<MethodHandle, TableWriter> entry : this.objectLists.entrySet())
+                {
+                    List<Object> children = Lists.newArrayList();
+                    for (Object object : objects)
+                    {
+                        Collection<?> list = (Collection<?>) entry.getKey().invoke(object);
+                        if (list != null)
+                        {
+                            children.addAll(list);
+                        }
+                    }
+                    entry.getValue().write(con, children, true);
+                }
+            }
+        }
+        catch (SQLException e)
+        {
+            throw e;
+        }
+        catch (Throwable throwable)
+        {
+            throw new SQLException("Unable to write to " + table.name(), throwable);
+        }
+    }
+
+    private void insertGenerated(Connection con, Object object) throws Throwable
+    {
+        try (PreparedStatement statement = con.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS))
+        {
+            bind(statement, columnsWithoutKey, object);
+            statement.executeUpdate();
+            ResultSet keys = statement.getGeneratedKeys();
+            if (keys.next())
+            {
+                long generated = keys.getLong(1);
+                keySetter.invoke(object, table.primaryKey().getType() == int.class ? (Object) (int) generated : (Object) generated);
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Column[] columns, Object object) throws Throwable
+    {
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i].binder().bind(statement, i + 1, columns[i].getter().invoke(object));
+        }
+    }
+
+    private String buildInsert(Column[] columns)
+    {
+        return "INSERT INTO `" + table.name() + "` (" + join(columns, "`%s`") + ") VALUES (" + join(columns, "?") + ")";
+    }
+
+    private String buildUpsert(StorageType storageType)
+    {
+        String insert = buildInsert(columns);
+        if (key == null || columnsWithoutKey.length == 0)
+        {
+            return insert;
+        }
+        if (storageType == StorageType.MARIADB)
+        {
+            return insert + " ON DUPLICATE KEY UPDATE " + join(columnsWithoutKey, "`%1$s`=VALUES(`%1$s`)");
+        }
+        return insert + " ON CONFLICT (`" + key.name() + "`) DO UPDATE SET " + join(columnsWithoutKey, "`%1$s`=excluded.`%1$s`");
+    }
+
+    private static String join(Column[] columns, String format)
+    {
+        return Arrays.stream(columns).map(column -> String.format(format, column.name())).collect(Collectors.joining(", "));
+    }
+
+    private record Column(String name, ColumnBinder binder, MethodHandle getter)
+    {
+    }
+}